@@ -0,0 +1,27 @@
+package pl.pragmatists.complexity.machine.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import pl.pragmatists.complexity.machine.v7.VendingMachineAction;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ActionLookupBenchmark {
+    @Param({"1", "0", "100", "57"})
+    public int code;
+
+    @Benchmark
+    public StreamLookupAction stream() {
+        return StreamLookupAction.of(code);
+    }
+
+    @Benchmark
+    public VendingMachineAction table() {
+        return VendingMachineAction.of(code);
+    }
+}
@@ -0,0 +1,90 @@
+package pl.pragmatists.complexity.machine.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import pl.pragmatists.complexity.machine.actor.ActorSystem;
+import pl.pragmatists.complexity.machine.actor.MachineActor;
+import pl.pragmatists.complexity.machine.common.SilentMachineDisplay;
+import pl.pragmatists.complexity.machine.common.TransactionListener;
+import pl.pragmatists.complexity.machine.journal.MachineState;
+import pl.pragmatists.complexity.machine.v7.MachineService;
+import pl.pragmatists.complexity.machine.v7.VendingMachine;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@value #THREADS} customer threads each running sessions (insert coins, choose, return coins) against random machines
+ * out of {@code machines}, either through a {@link MachineActor} per machine or through a
+ * {@link SynchronizedVendingMachine}. {@code actorSession} waits for the last command only, {@code actorRoundTrips} for
+ * every command like the synchronized wrapper does.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(ActorBenchmark.THREADS)
+@State(Scope.Benchmark)
+public class ActorBenchmark {
+    static final int THREADS = 8;
+    private static final int STOCK = 1 << 30;
+
+    @Param({"1", "64"})
+    public int machines;
+
+    @Param({"4"})
+    public int workers;
+
+    private ActorSystem actorSystem;
+    private MachineActor[] actors;
+    private SynchronizedVendingMachine[] synchronizedMachines;
+
+    @Setup
+    public void setUp() {
+        actorSystem = new ActorSystem(workers);
+        actors = new MachineActor[machines];
+        synchronizedMachines = new SynchronizedVendingMachine[machines];
+        for (int i = 0; i < machines; i++) {
+            actors[i] = actorSystem.spawn(machine(i));
+            synchronizedMachines[i] = new SynchronizedVendingMachine(machine(i));
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        actorSystem.close();
+    }
+
+    @Benchmark
+    public int actorSession() {
+        var actor = actors[nextMachine()];
+        actor.insertCoins(5);
+        actor.choose(1);
+        return actor.returnCoins().join();
+    }
+
+    @Benchmark
+    public int actorRoundTrips() {
+        var actor = actors[nextMachine()];
+        actor.insertCoins(5).join();
+        actor.choose(1).join();
+        return actor.returnCoins().join();
+    }
+
+    @Benchmark
+    public int synchronizedWrapper() {
+        var machine = synchronizedMachines[nextMachine()];
+        machine.insertCoins(5);
+        machine.choose(1);
+        return machine.returnCoins();
+    }
+
+    private int nextMachine() {
+        return ThreadLocalRandom.current().nextInt(machines);
+    }
+
+    private static VendingMachine machine(int index) {
+        return new VendingMachine("xyz-" + index, new MachineState(0, STOCK, STOCK), new SilentMachineDisplay(),
+                MachineService.defaultService(), TransactionListener.NONE);
+    }
+}
@@ -0,0 +1,64 @@
+package pl.pragmatists.complexity.machine.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import pl.pragmatists.complexity.machine.common.SilentMachineDisplay;
+import pl.pragmatists.complexity.machine.v7.BatchCommands;
+import pl.pragmatists.complexity.machine.v7.BatchResult;
+import pl.pragmatists.complexity.machine.v7.VendingMachine;
+
+import java.nio.IntBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays the same command stream through {@link VendingMachine#apply} and through one call per command.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BatchBenchmark {
+    private static final int SESSIONS = 1_000;
+
+    private final int[] commands = new int[SESSIONS * 8];
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < SESSIONS; i++) {
+            int offset = i * 8;
+            commands[offset] = BatchCommands.INSERT_COINS;
+            commands[offset + 1] = 3 + i % 6;
+            commands[offset + 2] = BatchCommands.CHOOSE;
+            commands[offset + 3] = 1 + i % 2;
+            commands[offset + 4] = BatchCommands.CHOOSE;
+            commands[offset + 5] = 57;
+            commands[offset + 6] = BatchCommands.RETURN_COINS;
+            commands[offset + 7] = 0;
+        }
+    }
+
+    @Benchmark
+    public BatchResult batch() {
+        return new VendingMachine(new SilentMachineDisplay()).apply(IntBuffer.wrap(commands), false);
+    }
+
+    @Benchmark
+    public int oneCallPerCommand() {
+        var machine = new VendingMachine(new SilentMachineDisplay());
+        for (int i = 0; i < commands.length; i += 2) {
+            switch (commands[i]) {
+                case BatchCommands.INSERT_COINS:
+                    machine.insertCoins(commands[i + 1]);
+                    break;
+                case BatchCommands.CHOOSE:
+                    machine.choose(commands[i + 1]);
+                    break;
+                default:
+                    machine.returnCoins();
+                    break;
+            }
+        }
+        return machine.getCoinBalance();
+    }
+}
@@ -0,0 +1,17 @@
+package pl.pragmatists.complexity.machine.benchmark;
+
+import org.openjdk.jmh.infra.Blackhole;
+import pl.pragmatists.complexity.machine.common.MachineDisplay;
+
+class BlackholeDisplay extends MachineDisplay {
+    private final Blackhole blackhole;
+
+    BlackholeDisplay(Blackhole blackhole) {
+        this.blackhole = blackhole;
+    }
+
+    @Override
+    public void display(String message) {
+        blackhole.consume(message);
+    }
+}
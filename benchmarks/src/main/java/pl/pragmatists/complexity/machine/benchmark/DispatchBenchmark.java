@@ -0,0 +1,74 @@
+package pl.pragmatists.complexity.machine.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import pl.pragmatists.complexity.machine.Machines;
+import pl.pragmatists.complexity.machine.common.Machine;
+import pl.pragmatists.complexity.machine.common.SilentMachineDisplay;
+import pl.pragmatists.complexity.machine.v7.VendingMachine;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of calling a v7 machine through {@link Machine}. {@code direct} calls {@code v7.VendingMachine} itself,
+ * {@code monomorphic} calls it through the interface at a call site that has only ever seen v7, so the JIT inlines it
+ * behind a type check. {@code megamorphic} uses a call site that was first fed four other versions, which leaves an
+ * itable call that can't be inlined.
+ * <p>
+ * To see the inlining decisions, add {@code -jvmArgsAppend "-XX:+UnlockDiagnosticVMOptions -XX:+PrintInlining"}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DispatchBenchmark {
+    private static final int RETURN_COINS = 0;
+    private static final int POLLUTING_CALLS = 20_000;
+
+    private VendingMachine v7;
+    private Machine machine;
+
+    @Setup
+    public void setUp() {
+        var display = new SilentMachineDisplay();
+        v7 = new VendingMachine(display);
+        machine = v7;
+        for (String version : new String[]{"v1", "v3", "v5a", "concurrent"}) {
+            var other = Machines.create(version, display);
+            for (int i = 0; i < POLLUTING_CALLS; i++) {
+                polluted(other);
+            }
+        }
+    }
+
+    @Benchmark
+    public int direct() {
+        v7.insertCoins(3);
+        v7.choose(RETURN_COINS);
+        return v7.getCoinBalance();
+    }
+
+    @Benchmark
+    public int monomorphic() {
+        return session(machine);
+    }
+
+    @Benchmark
+    public int megamorphic() {
+        return polluted(machine);
+    }
+
+    private static int session(Machine machine) {
+        machine.insertCoins(3);
+        machine.choose(RETURN_COINS);
+        return machine.getCoinBalance();
+    }
+
+    // same body as session, but its call sites get a profile of their own
+    private static int polluted(Machine machine) {
+        machine.insertCoins(3);
+        machine.choose(RETURN_COINS);
+        return machine.getCoinBalance();
+    }
+}
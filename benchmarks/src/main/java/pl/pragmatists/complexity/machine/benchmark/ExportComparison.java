@@ -0,0 +1,95 @@
+package pl.pragmatists.complexity.machine.benchmark;
+
+import pl.pragmatists.complexity.machine.analytics.ColumnarWriter;
+import pl.pragmatists.complexity.machine.analytics.CsvWriter;
+import pl.pragmatists.complexity.machine.analytics.RowSink;
+import pl.pragmatists.complexity.machine.journal.RecordType;
+
+import java.io.OutputStream;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+
+/**
+ * Exports the same synthetic sales history (a fleet of machines taking turns, tens of milliseconds apart) as columns and as
+ * CSV, and reports size and throughput of both. Output is counted, not kept, so the row count is only limited by time;
+ * memory use stays at one row group.
+ * <p>
+ * Arguments: rows, row group size, formats to run (defaults: 10000000, 65536, "columnar,csv").
+ */
+public class ExportComparison {
+    private static final int MACHINES = 1000;
+    private static final int MAX_GAP_MILLIS = 50;
+
+    public static void main(String[] args) {
+        long rows = args.length > 0 ? Long.parseLong(args[0]) : 10_000_000;
+        int rowGroupSize = args.length > 1 ? Integer.parseInt(args[1]) : 65536;
+        String formats = args.length > 2 ? args[2] : "columnar,csv";
+
+        if (formats.contains("columnar")) {
+            run("columnar", rows, out -> new ColumnarWriter(out, rowGroupSize));
+        }
+        if (formats.contains("csv")) {
+            run("csv", rows, CsvWriter::new);
+        }
+    }
+
+    private static <T extends RowSink & AutoCloseable> void run(String format, long rows,
+                                                                 Function<OutputStream, T> writers) {
+        var out = new CountingOutputStream();
+        long start = System.nanoTime();
+        try (var writer = writers.apply(out)) {
+            generate(rows, writer);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%-8s %,d rows: %,d bytes (%.2f per row), %.1f s, %,.0f rows/s, %.0f MB/s%n", format, rows,
+                out.count, (double) out.count / rows, seconds, rows / seconds, out.count / seconds / 1e6);
+    }
+
+    /**
+     * Every customer inserts coins, buys something or not, and takes the change: three rows.
+     */
+    private static void generate(long rows, RowSink sink) {
+        var random = new SplittableRandom(42);
+        String[] serials = new String[MACHINES];
+        for (int i = 0; i < MACHINES; i++) {
+            serials[i] = String.format("vm-%06d", i);
+        }
+        long timestamp = 1_700_000_000_000L;
+        for (long row = 0; row < rows; ) {
+            String serial = serials[random.nextInt(MACHINES)];
+            timestamp += random.nextInt(MAX_GAP_MILLIS);
+            int coins = 1 + random.nextInt(10);
+            sink.append(timestamp, serial, RecordType.COINS_INSERTED, "", coins, coins);
+            row++;
+            int balance = coins;
+            if (row < rows && coins >= 5) {
+                boolean chocoBar = coins < 7 || random.nextBoolean();
+                int price = chocoBar ? 5 : 7;
+                balance -= price;
+                sink.append(timestamp + 1, serial, RecordType.ITEM_SOLD, chocoBar ? "choco bar" : "juice box",
+                        price, balance);
+                row++;
+            }
+            if (row < rows) {
+                sink.append(timestamp + 2, serial, RecordType.COINS_RETURNED, "", balance, 0);
+                row++;
+            }
+        }
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
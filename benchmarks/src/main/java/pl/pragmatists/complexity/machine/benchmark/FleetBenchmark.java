@@ -0,0 +1,79 @@
+package pl.pragmatists.complexity.machine.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import pl.pragmatists.complexity.machine.common.SilentMachineDisplay;
+import pl.pragmatists.complexity.machine.fleet.Fleet;
+import pl.pragmatists.complexity.machine.v7.MachineService;
+import pl.pragmatists.complexity.machine.v7.VendingMachine;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Routes a sale to a random machine out of {@code machines}, either through {@link Fleet} or through a
+ * {@code HashMap} of {@code v7.VendingMachine} objects. A machine is restocked once its choco bars are sold out (a
+ * {@code v7} machine by replacing it, like in {@link VendingMachineBenchmark}), so every call takes the selling path.
+ * Run {@link FleetFootprint} for heap usage per machine.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FleetBenchmark {
+    @Param({"100000"})
+    public int machines;
+
+    private String[] serials;
+    private Fleet fleet;
+    private Map<String, VendingMachine> objects;
+    private int next;
+    private int restockedStock;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        serials = new String[machines];
+        fleet = new Fleet(machines, new SilentMachineDisplay(), MachineService.defaultService());
+        objects = new HashMap<>();
+        for (int i = 0; i < machines; i++) {
+            serials[i] = "xyz-" + i;
+            fleet.register(serials[i]);
+            objects.put(serials[i], new VendingMachine(new SilentMachineDisplay()));
+        }
+        restockedStock = fleet.getChocoBarStock(serials[0]);
+    }
+
+    @Benchmark
+    public int fleet() {
+        var serial = nextSerial();
+        fleet.insertCoins(serial, 5);
+        fleet.choose(serial, 1);
+        fleet.choose(serial, 0);
+        int stock = fleet.getChocoBarStock(serial);
+        if (stock == 0) {
+            fleet.restock(serial, restockedStock, 0);
+        }
+        return stock;
+    }
+
+    @Benchmark
+    public int objects() {
+        var serial = nextSerial();
+        var machine = objects.get(serial);
+        machine.insertCoins(5);
+        machine.choose(1);
+        machine.choose(0);
+        int stock = machine.getChocoBarStock();
+        if (stock == 0) {
+            objects.put(serial, new VendingMachine(new SilentMachineDisplay()));
+        }
+        return stock;
+    }
+
+    private String nextSerial() {
+        next = (next * 1_103_515_245 + 12_345) & Integer.MAX_VALUE;
+        return serials[next % machines];
+    }
+}
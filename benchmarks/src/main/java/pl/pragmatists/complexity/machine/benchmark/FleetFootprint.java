@@ -0,0 +1,56 @@
+package pl.pragmatists.complexity.machine.benchmark;
+
+import pl.pragmatists.complexity.machine.common.SilentMachineDisplay;
+import pl.pragmatists.complexity.machine.fleet.Fleet;
+import pl.pragmatists.complexity.machine.v7.MachineService;
+import pl.pragmatists.complexity.machine.v7.VendingMachine;
+
+import java.lang.ref.Reference;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Prints retained heap per machine for a {@link Fleet} and for a {@code HashMap} of {@code v7.VendingMachine} objects,
+ * both keyed by serial id. The serial strings are part of both measurements.
+ * <p>
+ * Usage: {@code java -cp benchmarks.jar ...FleetFootprint [machines]} (default 100000).
+ */
+public class FleetFootprint {
+    public static void main(String[] args) {
+        int machines = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+
+        report("fleet", machines, count -> {
+            var fleet = new Fleet(count, new SilentMachineDisplay(), MachineService.defaultService());
+            for (int i = 0; i < count; i++) {
+                fleet.register("xyz-" + i);
+            }
+            return fleet;
+        });
+        report("objects", machines, count -> {
+            var display = new SilentMachineDisplay();
+            Map<String, VendingMachine> objects = new HashMap<>();
+            for (int i = 0; i < count; i++) {
+                objects.put("xyz-" + i, new VendingMachine(display));
+            }
+            return objects;
+        });
+    }
+
+    private static void report(String name, int machines, IntFunction<Object> factory) {
+        long before = usedHeap();
+        Object retained = factory.apply(machines);
+        long after = usedHeap();
+        System.out.printf("%-8s %,d machines: %,d bytes, %.1f bytes/machine%n",
+                name, machines, after - before, (after - before) / (double) machines);
+        Reference.reachabilityFence(retained);
+    }
+
+    private static long usedHeap() {
+        var runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
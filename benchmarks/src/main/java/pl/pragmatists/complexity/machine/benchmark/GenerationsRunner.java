@@ -0,0 +1,20 @@
+package pl.pragmatists.complexity.machine.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs {@link VendingMachineBenchmark} with the GC profiler attached, so throughput, average time and allocation rate
+ * ({@code gc.alloc.rate.norm}) are reported side by side for every generation.
+ */
+public class GenerationsRunner {
+    public static void main(String[] args) throws RunnerException {
+        var options = new OptionsBuilder()
+                .include(VendingMachineBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,49 @@
+package pl.pragmatists.complexity.machine.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import pl.pragmatists.complexity.machine.inventory.InventoryService;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sales at random machines of a shared {@link InventoryService}, restocking a machine whenever it runs out. One shard
+ * is a single global lock. Run {@link InventoryContentionRunner} to repeat it at 1 to 64 threads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InventoryBenchmark {
+    private static final int PRODUCTS = 2;
+    private static final int RESTOCK = 10;
+
+    @Param({"1024"})
+    public int machines;
+
+    @Param({"1", "16", "64"})
+    public int shards;
+
+    private InventoryService inventory;
+
+    @Setup
+    public void setUp() {
+        inventory = new InventoryService(machines, PRODUCTS, shards);
+        inventory.restock(0, machines, 1, RESTOCK);
+        inventory.restock(0, machines, 2, RESTOCK);
+    }
+
+    @Benchmark
+    public boolean sell() {
+        var random = ThreadLocalRandom.current();
+        int machine = random.nextInt(machines);
+        int product = 1 + random.nextInt(PRODUCTS);
+        if (inventory.trySell(machine, product)) {
+            return true;
+        }
+        inventory.restock(machine, product, RESTOCK);
+        return false;
+    }
+}
@@ -0,0 +1,22 @@
+package pl.pragmatists.complexity.machine.benchmark;
+
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs {@link InventoryBenchmark} with 1, 2, 4, ... 64 threads.
+ */
+public class InventoryContentionRunner {
+    private static final int MAX_THREADS = 64;
+
+    public static void main(String[] args) throws RunnerException {
+        for (int threads = 1; threads <= MAX_THREADS; threads *= 2) {
+            var options = new OptionsBuilder()
+                    .include(InventoryBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
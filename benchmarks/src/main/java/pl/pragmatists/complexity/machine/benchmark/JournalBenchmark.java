@@ -0,0 +1,66 @@
+package pl.pragmatists.complexity.machine.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import pl.pragmatists.complexity.machine.common.SilentMachineDisplay;
+import pl.pragmatists.complexity.machine.common.TransactionListener;
+import pl.pragmatists.complexity.machine.journal.MachineState;
+import pl.pragmatists.complexity.machine.journal.TransactionJournal;
+import pl.pragmatists.complexity.machine.v7.MachineService;
+import pl.pragmatists.complexity.machine.v7.VendingMachine;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of journaling a sale (coins inserted + item sold) for different group commit sizes; {@code 0} runs without a
+ * journal. The journal is created in the default temp directory, so results depend on what backs it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JournalBenchmark {
+    @Param({"0", "1", "64", "4096"})
+    public int groupCommitSize;
+
+    private Path directory;
+    private TransactionListener listener;
+    private VendingMachine machine;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        if (groupCommitSize == 0) {
+            listener = TransactionListener.NONE;
+        } else {
+            directory = Files.createTempDirectory("vending-journal");
+            listener = TransactionJournal.open(directory, "xyz-109", groupCommitSize);
+        }
+        restock();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        if (listener instanceof TransactionJournal) {
+            ((TransactionJournal) listener).close();
+            Directories.deleteRecursively(directory);
+        }
+    }
+
+    @Benchmark
+    public int sale() {
+        machine.insertCoins(5);
+        machine.choose(1);
+        if (machine.getChocoBarStock() == 0) {
+            restock();
+        }
+        return machine.getCoinBalance();
+    }
+
+    private void restock() {
+        machine = new VendingMachine("xyz-109", MachineState.initial(), new SilentMachineDisplay(), MachineService.defaultService(), listener);
+    }
+}
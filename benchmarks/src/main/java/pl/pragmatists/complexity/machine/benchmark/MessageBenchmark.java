@@ -0,0 +1,58 @@
+package pl.pragmatists.complexity.machine.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import pl.pragmatists.complexity.machine.common.DisplayEvent;
+import pl.pragmatists.complexity.machine.common.MessageCache;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering a "Sold ..." message for balances cycling through {@code balances} values: {@code String.format} as in
+ * {@code sellItem} of v1-v6, concatenation in {@link DisplayEvent} as in v7, and a lookup in {@link MessageCache}.
+ * Run with {@code -prof gc} to compare allocation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MessageBenchmark {
+    @Param({"50", "5000"})
+    public int balances;
+
+    private MessageCache cache;
+    private int balance;
+
+    @Setup
+    public void setUp() {
+        cache = new MessageCache();
+    }
+
+    @Benchmark
+    public String stringFormat() {
+        return String.format("Sold %s, current balance: %d", "choco bar", nextBalance());
+    }
+
+    @Benchmark
+    public String concatenation() {
+        return DisplayEvent.ITEM_SOLD.render("choco bar", nextBalance(), 0);
+    }
+
+    @Benchmark
+    public String cached() {
+        return cache.render(DisplayEvent.ITEM_SOLD, "choco bar", nextBalance(), 0);
+    }
+
+    @TearDown
+    public void reportHitRate() {
+        if (cache.getHits() + cache.getMisses() > 0) {
+            System.out.printf("%nmessage cache hit rate: %.4f%n", cache.getHitRate());
+        }
+    }
+
+    private int nextBalance() {
+        balance = balance + 1 == balances ? 0 : balance + 1;
+        return balance;
+    }
+}
@@ -0,0 +1,60 @@
+package pl.pragmatists.complexity.machine.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import pl.pragmatists.complexity.machine.common.SilentMachineDisplay;
+import pl.pragmatists.complexity.machine.common.TransactionListener;
+import pl.pragmatists.complexity.machine.journal.MachineState;
+import pl.pragmatists.complexity.machine.metrics.MachineMetrics;
+import pl.pragmatists.complexity.machine.metrics.RecordingMachineMetrics;
+import pl.pragmatists.complexity.machine.v7.MachineService;
+import pl.pragmatists.complexity.machine.v7.VendingMachine;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of metrics on a {@code v7} session of {@value #OPERATIONS} instrumented operations (insert coins, sell choco bar,
+ * fail to sell juice box, return coins), reported per operation. {@code none} has metrics disabled, {@code sampled}
+ * times one choice in 16 and {@code everyChoice} times all of them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MetricsBenchmark {
+    static final int OPERATIONS = 4;
+    private static final int STOCK = 1 << 30;
+
+    @Param({"none", "sampled", "everyChoice"})
+    public String metrics;
+
+    private VendingMachine vendingMachine;
+
+    @Setup
+    public void setUp() {
+        vendingMachine = new VendingMachine("xyz-109", new MachineState(0, STOCK, STOCK), new SilentMachineDisplay(),
+                MachineService.defaultService(), TransactionListener.NONE, machineMetrics());
+    }
+
+    private MachineMetrics machineMetrics() {
+        switch (metrics) {
+            case "sampled":
+                return new RecordingMachineMetrics();
+            case "everyChoice":
+                return new RecordingMachineMetrics(2, 1);
+            default:
+                return MachineMetrics.NONE;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public int session() {
+        vendingMachine.insertCoins(5);
+        vendingMachine.choose(1);
+        vendingMachine.choose(2);
+        vendingMachine.returnCoins();
+        return vendingMachine.getChocoBarStock();
+    }
+}
@@ -0,0 +1,194 @@
+package pl.pragmatists.complexity.machine.benchmark;
+
+import pl.pragmatists.complexity.machine.common.Machine;
+import pl.pragmatists.complexity.machine.common.SilentMachineDisplay;
+import pl.pragmatists.complexity.machine.metrics.LatencyHistogram;
+import pl.pragmatists.complexity.machine.remote.MachineServer;
+import pl.pragmatists.complexity.machine.remote.Protocol;
+import pl.pragmatists.complexity.machine.v7.VendingMachine;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opens many connections to a {@link MachineServer} and has every one of them keep a few requests in flight (insert
+ * coins, choose a choco bar, return coins, over and over) until it has sent its share, then reports request latency
+ * percentiles.
+ * <p>
+ * Arguments: connections, requests per connection, requests in flight per connection, and optionally the server's
+ * {@code host:port} (defaults: 10000, 100, 4, a server started in this JVM). Client and server each need a file
+ * descriptor per connection, so raise {@code ulimit -n} or run the server in a process of its own ({@code
+ * MachineServer.main}). Beyond ~28k connections, run the server on a loopback address: clients then spread over
+ * 127.0.0.x source addresses, as a single one runs out of ephemeral ports.
+ */
+public class RemoteLoadTest {
+    private static final int MACHINES = 1024;
+    private static final int CONNECTIONS_PER_SOURCE_ADDRESS = 25_000;
+    private static final byte[] OPERATIONS = {Protocol.INSERT_COINS, Protocol.CHOOSE, Protocol.RETURN_COINS};
+    private static final int[] ARGUMENTS = {5, 1, 0};
+
+    public static void main(String[] args) throws Exception {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int requests = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int inFlight = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+
+        MachineServer server = null;
+        InetSocketAddress address;
+        if (args.length > 3) {
+            String[] hostAndPort = args[3].split(":");
+            address = new InetSocketAddress(hostAndPort[0], Integer.parseInt(hostAndPort[1]));
+        } else {
+            var machines = new ArrayList<Machine>(MACHINES);
+            for (int i = 0; i < MACHINES; i++) {
+                machines.add(new VendingMachine(new SilentMachineDisplay()));
+            }
+            server = new MachineServer(new InetSocketAddress("127.0.0.1", 0), machines);
+            address = server.getAddress();
+        }
+
+        try (var selector = Selector.open()) {
+            connect(selector, address, connections, requests, inFlight);
+            var histogram = new LatencyHistogram();
+            long start = System.nanoTime();
+            run(selector, connections, histogram);
+            long elapsed = System.nanoTime() - start;
+            report(connections, histogram.snapshot(), elapsed);
+        } finally {
+            if (server != null) {
+                server.close();
+            }
+        }
+    }
+
+    private static void connect(Selector selector, InetSocketAddress address, int connections, int requests,
+                                int inFlight) throws IOException {
+        for (int i = 0; i < connections; i++) {
+            var channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            if (address.getAddress().isLoopbackAddress()) {
+                channel.bind(new InetSocketAddress("127.0.0." + (1 + i / CONNECTIONS_PER_SOURCE_ADDRESS), 0));
+            }
+            channel.connect(address);
+            channel.register(selector, SelectionKey.OP_CONNECT, new Client(channel, i % MACHINES, requests, inFlight));
+        }
+        int pending = connections;
+        while (pending > 0) {
+            selector.select();
+            for (var key : selector.selectedKeys()) {
+                if (((SocketChannel) key.channel()).finishConnect()) {
+                    key.interestOps(0);
+                    pending--;
+                }
+            }
+            selector.selectedKeys().clear();
+        }
+    }
+
+    private static void run(Selector selector, int connections, LatencyHistogram histogram) throws IOException {
+        var out = ByteBuffer.allocateDirect(64 * Protocol.FRAME_SIZE);
+        for (var key : selector.keys()) {
+            ((Client) key.attachment()).start(out);
+            key.interestOps(SelectionKey.OP_READ);
+        }
+        int running = connections;
+        while (running > 0) {
+            selector.select();
+            for (var key : selector.selectedKeys()) {
+                var client = (Client) key.attachment();
+                if (client.receive(out, histogram)) {
+                    key.cancel();
+                    client.channel.close();
+                    running--;
+                }
+            }
+            selector.selectedKeys().clear();
+        }
+    }
+
+    private static void report(int connections, LatencyHistogram.Snapshot latency, long elapsedNanos) {
+        long count = latency.getTotalCount();
+        System.out.printf("%d connections, %d requests in %.2f s, %.0f requests/s%n", connections, count,
+                elapsedNanos / 1e9, count / (elapsedNanos / 1e9));
+        System.out.printf("latency us: p50 %d, p99 %d, p999 %d, max %d%n",
+                micros(latency.valueAtPercentile(50)), micros(latency.valueAtPercentile(99)),
+                micros(latency.valueAtPercentile(99.9)), micros(latency.getMaxValue()));
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+    private static class Client {
+        private final SocketChannel channel;
+        private final int machine;
+        private final int requests;
+        private final long[] sentAt;
+        private final ByteBuffer in;
+        private int sent;
+        private int received;
+
+        Client(SocketChannel channel, int machine, int requests, int inFlight) {
+            this.channel = channel;
+            this.machine = machine;
+            this.requests = requests;
+            this.sentAt = new long[inFlight];
+            this.in = ByteBuffer.allocate(inFlight * Protocol.FRAME_SIZE);
+        }
+
+        void start(ByteBuffer out) throws IOException {
+            out.clear();
+            while (sent < requests && sent < sentAt.length) {
+                putNext(out);
+            }
+            write(out);
+        }
+
+        /**
+         * @return whether all replies are in
+         */
+        boolean receive(ByteBuffer out, LatencyHistogram histogram) throws IOException {
+            if (channel.read(in) < 0) {
+                throw new IOException("Server closed the connection");
+            }
+            long now = System.nanoTime();
+            in.flip();
+            out.clear();
+            while (in.remaining() >= Protocol.FRAME_SIZE) {
+                int requestId = Protocol.requestIdAt(in, in.position());
+                if (Protocol.codeAt(in, in.position()) != Protocol.OK) {
+                    throw new IllegalStateException(String.format("Request %d failed", requestId));
+                }
+                histogram.record(now - sentAt[requestId % sentAt.length]);
+                received++;
+                in.position(in.position() + Protocol.FRAME_SIZE);
+                if (sent < requests) {
+                    putNext(out);
+                }
+            }
+            in.compact();
+            write(out);
+            return received == requests;
+        }
+
+        private void putNext(ByteBuffer out) {
+            int step = sent % OPERATIONS.length;
+            sentAt[sent % sentAt.length] = System.nanoTime();
+            Protocol.putRequest(out, sent, OPERATIONS[step], machine, ARGUMENTS[step]);
+            sent++;
+        }
+
+        private void write(ByteBuffer out) throws IOException {
+            out.flip();
+            while (out.hasRemaining()) {
+                // a few frames always fit in the socket's send buffer, as at most inFlight are unanswered
+                channel.write(out);
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package pl.pragmatists.complexity.machine.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import pl.pragmatists.complexity.machine.common.SilentMachineDisplay;
+import pl.pragmatists.complexity.machine.common.TransactionListener;
+import pl.pragmatists.complexity.machine.journal.MachineState;
+import pl.pragmatists.complexity.machine.v7.MachineService;
+import pl.pragmatists.complexity.machine.v7.VendingMachine;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sale path of a {@code v7} machine that never runs out of stock, so no restocking shows up in the allocation rate.
+ * Run with {@code -prof gc}; to see what got inlined into {@code sellItem} add
+ * {@code -jvmArgsAppend "-XX:+UnlockDiagnosticVMOptions -XX:+PrintInlining"}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SellPathBenchmark {
+    private static final int STOCK = 1 << 30;
+
+    private VendingMachine vendingMachine;
+
+    @Setup
+    public void setUp() {
+        vendingMachine = new VendingMachine("xyz-109", new MachineState(0, STOCK, STOCK), new SilentMachineDisplay(),
+                MachineService.defaultService(), TransactionListener.NONE);
+    }
+
+    @Benchmark
+    public int sellAndReject() {
+        vendingMachine.insertCoins(5);
+        vendingMachine.choose(1);
+        vendingMachine.choose(2);
+        vendingMachine.choose(0);
+        return vendingMachine.getChocoBarStock();
+    }
+}
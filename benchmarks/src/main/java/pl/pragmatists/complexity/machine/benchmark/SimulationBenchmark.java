@@ -0,0 +1,48 @@
+package pl.pragmatists.complexity.machine.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import pl.pragmatists.complexity.machine.simulation.Simulation;
+import pl.pragmatists.complexity.machine.simulation.SimulationResult;
+
+import java.time.Duration;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A month of a 2000-machine fleet, simulated on a {@link ForkJoinPool} of 1 to 8 threads. Every run gives the same
+ * result; only the time it takes should change, and only while there are cores to spare.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SimulationBenchmark {
+    private static final Duration MONTH = Duration.ofDays(30);
+
+    @Param({"2000"})
+    public int machines;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private Simulation simulation;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setUp() {
+        simulation = new Simulation(machines, 42);
+        pool = new ForkJoinPool(threads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public SimulationResult simulate() {
+        return simulation.run(MONTH, pool);
+    }
+}
@@ -0,0 +1,74 @@
+package pl.pragmatists.complexity.machine.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import pl.pragmatists.complexity.machine.journal.MachineSnapshot;
+import pl.pragmatists.complexity.machine.journal.MachineState;
+import pl.pragmatists.complexity.machine.journal.MachineStore;
+import pl.pragmatists.complexity.machine.journal.RecordType;
+import pl.pragmatists.complexity.machine.journal.TransactionJournal;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to rebuild a machine's state from a history of {@code transactions} records: by replaying the whole journal, or
+ * by loading a snapshot taken {@value #TAIL} transactions ago and replaying only the tail. The history is generated
+ * once per trial in the default temp directory (24 bytes per transaction, so 2.4 GB for 100M).
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+    private static final int TAIL = 10_000;
+
+    @Param({"1000000", "10000000", "100000000"})
+    public long transactions;
+
+    private Path directory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("vending-startup");
+        try (var journal = TransactionJournal.open(directory, "xyz-109", 1 << 20)) {
+            var state = MachineState.initial();
+            for (long i = 0; i < transactions; i++) {
+                if (i == transactions - TAIL) {
+                    journal.commit();
+                    new MachineSnapshot("xyz-109", i, state.getCoinBalance(), state.getChocoBarStock(),
+                            state.getJuiceBoxStock()).writeTo(directory.resolve(MachineStore.SNAPSHOT_FILE));
+                }
+                if (i % 2 == 0) {
+                    journal.coinsInserted(5, 5);
+                    state.visit(0, RecordType.COINS_INSERTED, 0, 5, 5);
+                } else {
+                    journal.coinsReturned(5);
+                    state.visit(0, RecordType.COINS_RETURNED, 0, 5, 0);
+                }
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Directories.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public MachineState fullReplay() {
+        try (var journal = TransactionJournal.open(directory, "xyz-109", 1)) {
+            return journal.recoverState();
+        }
+    }
+
+    @Benchmark
+    public MachineState snapshotAndTail() throws InterruptedException {
+        try (var store = MachineStore.open(directory, "xyz-109", 1, Long.MAX_VALUE)) {
+            return store.getRecoveredState();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package pl.pragmatists.complexity.machine.benchmark;
+
+import java.util.Arrays;
+
+/**
+ * Copy of the stream-based {@code VendingMachineAction.of} lookup used up to v7, kept as a baseline.
+ */
+enum StreamLookupAction {
+    SELL_CHOCO_BAR(1),
+    SELL_JUICE_BOX(2),
+    RETURN_COINS(0),
+    CALL_SERVICE(100),
+    UNAVAILABLE(Integer.MIN_VALUE);
+
+    private final int choiceNumber;
+
+    StreamLookupAction(int choiceNumber) {
+        this.choiceNumber = choiceNumber;
+    }
+
+    static StreamLookupAction of(int code) {
+        return Arrays.stream(values())
+                .filter(v -> code == v.choiceNumber)
+                .findAny()
+                .orElse(UNAVAILABLE);
+    }
+}
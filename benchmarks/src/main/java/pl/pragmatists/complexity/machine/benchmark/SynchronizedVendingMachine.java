@@ -0,0 +1,31 @@
+package pl.pragmatists.complexity.machine.benchmark;
+
+import pl.pragmatists.complexity.machine.v7.VendingMachine;
+
+/**
+ * Baseline for {@link ActorBenchmark}: every call goes through the machine's monitor.
+ */
+public class SynchronizedVendingMachine {
+    private final VendingMachine machine;
+
+    public SynchronizedVendingMachine(VendingMachine machine) {
+        this.machine = machine;
+    }
+
+    public synchronized int insertCoins(int amount) {
+        machine.insertCoins(amount);
+        return machine.getCoinBalance();
+    }
+
+    public synchronized boolean choose(int selectedNumber) {
+        int stockBefore = machine.getChocoBarStock() + machine.getJuiceBoxStock();
+        machine.choose(selectedNumber);
+        return machine.getChocoBarStock() + machine.getJuiceBoxStock() < stockBefore;
+    }
+
+    public synchronized int returnCoins() {
+        int returned = machine.getCoinBalance();
+        machine.returnCoins();
+        return returned;
+    }
+}
@@ -0,0 +1,79 @@
+package pl.pragmatists.complexity.machine.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import pl.pragmatists.complexity.machine.common.SilentMachineDisplay;
+import pl.pragmatists.complexity.machine.common.TransactionListener;
+import pl.pragmatists.complexity.machine.journal.MachineState;
+import pl.pragmatists.complexity.machine.telemetry.TelemetryMirror;
+import pl.pragmatists.complexity.machine.telemetry.TelemetryReader;
+import pl.pragmatists.complexity.machine.telemetry.TelemetrySnapshot;
+import pl.pragmatists.complexity.machine.v7.MachineService;
+import pl.pragmatists.complexity.machine.v7.VendingMachine;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What mirroring a v7 machine into a {@link TelemetryMirror} adds to a customer session (insert coins, buy a choco
+ * bar, take the change), and what reading one machine's snapshot back costs a monitoring agent.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TelemetryBenchmark {
+    private static final MachineState STATE = new MachineState(0, Integer.MAX_VALUE / 2, Integer.MAX_VALUE / 2);
+
+    private Path file;
+    private TelemetryMirror mirror;
+    private TelemetryReader reader;
+    private VendingMachine plain;
+    private VendingMachine mirrored;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = Files.createTempFile("telemetry", ".bin");
+        mirror = TelemetryMirror.create(file, 1);
+        reader = TelemetryReader.open(file);
+        plain = newVendingMachine(TransactionListener.NONE);
+        mirrored = newVendingMachine(mirror.attach(0, "xyz-109", STATE));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        reader.close();
+        mirror.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public int withoutMirror() {
+        return session(plain);
+    }
+
+    @Benchmark
+    public int withMirror() {
+        return session(mirrored);
+    }
+
+    @Benchmark
+    public TelemetrySnapshot readSnapshot() {
+        return reader.read(0).orElseThrow();
+    }
+
+    private static int session(VendingMachine vendingMachine) {
+        vendingMachine.insertCoins(7);
+        vendingMachine.choose(1);
+        vendingMachine.returnCoins();
+        return vendingMachine.getCoinBalance();
+    }
+
+    private static VendingMachine newVendingMachine(TransactionListener listener) {
+        return new VendingMachine("xyz-109", STATE, new SilentMachineDisplay(), MachineService.defaultService(),
+                listener);
+    }
+}
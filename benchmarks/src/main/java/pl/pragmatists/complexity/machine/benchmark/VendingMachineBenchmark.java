@@ -0,0 +1,281 @@
+package pl.pragmatists.complexity.machine.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import pl.pragmatists.complexity.machine.common.MachineDisplay;
+import pl.pragmatists.complexity.machine.common.SilentMachineDisplay;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the same customer session against every {@code VendingMachine} generation: a sale, a rejected sale (not enough
+ * coins), an unknown choice and returning the change. The machine is replaced once its choco bars are sold out, so each
+ * version pays for the same number of allocations. {@code v7Silent} shows what is left once nobody renders the messages.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VendingMachineBenchmark {
+    private static final int CHOCO_BAR_PRICE = 5;
+    private static final int SELL_CHOCO_BAR = 1;
+    private static final int SELL_JUICE_BOX = 2;
+    private static final int RETURN_COINS = 0;
+    private static final int UNKNOWN_CHOICE = 57;
+
+    @State(Scope.Thread)
+    public static class V1 {
+        private MachineDisplay display;
+        pl.pragmatists.complexity.machine.v1.VendingMachine machine;
+
+        @Setup(Level.Iteration)
+        public void setUp(Blackhole blackhole) {
+            display = new BlackholeDisplay(blackhole);
+            restock();
+        }
+
+        void restock() {
+            machine = new pl.pragmatists.complexity.machine.v1.VendingMachine(display);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class V2 {
+        private MachineDisplay display;
+        pl.pragmatists.complexity.machine.v2.VendingMachine machine;
+
+        @Setup(Level.Iteration)
+        public void setUp(Blackhole blackhole) {
+            display = new BlackholeDisplay(blackhole);
+            restock();
+        }
+
+        void restock() {
+            machine = new pl.pragmatists.complexity.machine.v2.VendingMachine(display);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class V3 {
+        private MachineDisplay display;
+        pl.pragmatists.complexity.machine.v3.VendingMachine machine;
+
+        @Setup(Level.Iteration)
+        public void setUp(Blackhole blackhole) {
+            display = new BlackholeDisplay(blackhole);
+            restock();
+        }
+
+        void restock() {
+            machine = new pl.pragmatists.complexity.machine.v3.VendingMachine(display);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class V4 {
+        private MachineDisplay display;
+        pl.pragmatists.complexity.machine.v4.VendingMachine machine;
+
+        @Setup(Level.Iteration)
+        public void setUp(Blackhole blackhole) {
+            display = new BlackholeDisplay(blackhole);
+            restock();
+        }
+
+        void restock() {
+            machine = new pl.pragmatists.complexity.machine.v4.VendingMachine(display);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class V5A {
+        private MachineDisplay display;
+        pl.pragmatists.complexity.machine.v5a.VendingMachine machine;
+
+        @Setup(Level.Iteration)
+        public void setUp(Blackhole blackhole) {
+            display = new BlackholeDisplay(blackhole);
+            restock();
+        }
+
+        void restock() {
+            machine = new pl.pragmatists.complexity.machine.v5a.VendingMachine(display);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class V5B {
+        private MachineDisplay display;
+        pl.pragmatists.complexity.machine.v5b.VendingMachine machine;
+
+        @Setup(Level.Iteration)
+        public void setUp(Blackhole blackhole) {
+            display = new BlackholeDisplay(blackhole);
+            restock();
+        }
+
+        void restock() {
+            machine = new pl.pragmatists.complexity.machine.v5b.VendingMachine(display);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class V6 {
+        private MachineDisplay display;
+        pl.pragmatists.complexity.machine.v6.VendingMachine machine;
+
+        @Setup(Level.Iteration)
+        public void setUp(Blackhole blackhole) {
+            display = new BlackholeDisplay(blackhole);
+            restock();
+        }
+
+        void restock() {
+            machine = new pl.pragmatists.complexity.machine.v6.VendingMachine(display);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class V7 {
+        private MachineDisplay display;
+        pl.pragmatists.complexity.machine.v7.VendingMachine machine;
+
+        @Setup(Level.Iteration)
+        public void setUp(Blackhole blackhole) {
+            display = new BlackholeDisplay(blackhole);
+            restock();
+        }
+
+        void restock() {
+            machine = new pl.pragmatists.complexity.machine.v7.VendingMachine(display);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class V7Silent {
+        pl.pragmatists.complexity.machine.v7.VendingMachine machine;
+
+        @Setup(Level.Iteration)
+        public void restock() {
+            machine = new pl.pragmatists.complexity.machine.v7.VendingMachine(new SilentMachineDisplay());
+        }
+    }
+
+    @Benchmark
+    public void v1(V1 state) {
+        var machine = state.machine;
+        machine.insertCoins(CHOCO_BAR_PRICE + 2);
+        machine.choose(SELL_CHOCO_BAR);
+        machine.choose(SELL_JUICE_BOX);
+        machine.choose(UNKNOWN_CHOICE);
+        machine.choose(RETURN_COINS);
+        if (machine.getChocoBarStock() == 0) {
+            state.restock();
+        }
+    }
+
+    @Benchmark
+    public void v2(V2 state) {
+        var machine = state.machine;
+        machine.insertCoins(CHOCO_BAR_PRICE + 2);
+        machine.choose(SELL_CHOCO_BAR);
+        machine.choose(SELL_JUICE_BOX);
+        machine.choose(UNKNOWN_CHOICE);
+        machine.choose(RETURN_COINS);
+        if (machine.getChocoBarStock() == 0) {
+            state.restock();
+        }
+    }
+
+    @Benchmark
+    public void v3(V3 state) {
+        var machine = state.machine;
+        machine.insertCoins(CHOCO_BAR_PRICE + 2);
+        machine.choose(SELL_CHOCO_BAR);
+        machine.choose(SELL_JUICE_BOX);
+        machine.choose(UNKNOWN_CHOICE);
+        machine.choose(RETURN_COINS);
+        if (machine.getChocoBarStock() == 0) {
+            state.restock();
+        }
+    }
+
+    @Benchmark
+    public void v4(V4 state) {
+        var machine = state.machine;
+        machine.insertCoins(CHOCO_BAR_PRICE + 2);
+        machine.choose(SELL_CHOCO_BAR);
+        machine.choose(SELL_JUICE_BOX);
+        machine.choose(UNKNOWN_CHOICE);
+        machine.choose(RETURN_COINS);
+        if (machine.getChocoBarStock() == 0) {
+            state.restock();
+        }
+    }
+
+    @Benchmark
+    public void v5a(V5A state) {
+        var machine = state.machine;
+        machine.insertCoins(CHOCO_BAR_PRICE + 2);
+        machine.choose(SELL_CHOCO_BAR);
+        machine.choose(SELL_JUICE_BOX);
+        machine.choose(UNKNOWN_CHOICE);
+        machine.choose(RETURN_COINS);
+        if (machine.getChocoBarStock() == 0) {
+            state.restock();
+        }
+    }
+
+    @Benchmark
+    public void v5b(V5B state) {
+        var machine = state.machine;
+        machine.insertCoins(CHOCO_BAR_PRICE + 2);
+        machine.choose(SELL_CHOCO_BAR);
+        machine.choose(SELL_JUICE_BOX);
+        machine.choose(UNKNOWN_CHOICE);
+        machine.choose(RETURN_COINS);
+        if (machine.getChocoBarStock() == 0) {
+            state.restock();
+        }
+    }
+
+    @Benchmark
+    public void v6(V6 state) {
+        var machine = state.machine;
+        machine.insertCoins(CHOCO_BAR_PRICE + 2);
+        machine.choose(SELL_CHOCO_BAR);
+        machine.choose(SELL_JUICE_BOX);
+        machine.choose(UNKNOWN_CHOICE);
+        machine.choose(RETURN_COINS);
+        if (machine.getChocoBarStock() == 0) {
+            state.restock();
+        }
+    }
+
+    @Benchmark
+    public void v7(V7 state) {
+        var machine = state.machine;
+        machine.insertCoins(CHOCO_BAR_PRICE + 2);
+        machine.choose(SELL_CHOCO_BAR);
+        machine.choose(SELL_JUICE_BOX);
+        machine.choose(UNKNOWN_CHOICE);
+        machine.choose(RETURN_COINS);
+        if (machine.getChocoBarStock() == 0) {
+            state.restock();
+        }
+    }
+
+    @Benchmark
+    public void v7Silent(V7Silent state) {
+        var machine = state.machine;
+        machine.insertCoins(CHOCO_BAR_PRICE + 2);
+        machine.choose(SELL_CHOCO_BAR);
+        machine.choose(SELL_JUICE_BOX);
+        machine.choose(UNKNOWN_CHOICE);
+        machine.choose(RETURN_COINS);
+        if (machine.getChocoBarStock() == 0) {
+            state.restock();
+        }
+    }
+}
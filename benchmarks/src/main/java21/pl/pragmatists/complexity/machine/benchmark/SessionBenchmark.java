@@ -0,0 +1,81 @@
+package pl.pragmatists.complexity.machine.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import pl.pragmatists.complexity.machine.common.SilentMachineDisplay;
+import pl.pragmatists.complexity.machine.common.TransactionListener;
+import pl.pragmatists.complexity.machine.journal.MachineState;
+import pl.pragmatists.complexity.machine.session.CustomerSession;
+import pl.pragmatists.complexity.machine.session.HardwareEvents;
+import pl.pragmatists.complexity.machine.session.SessionExecutor;
+import pl.pragmatists.complexity.machine.session.VirtualThreadSessions;
+import pl.pragmatists.complexity.machine.v7.MachineService;
+import pl.pragmatists.complexity.machine.v7.VendingMachine;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to get {@code sessions} concurrent customer sessions through {@code machines} machines, each session waiting
+ * {@code latencyMillis} for every hardware event. Divide {@code sessions} by the score for sessions per second.
+ * {@code virtual} runs a virtual thread per session, {@code platform} a pool of {@value #PLATFORM_THREADS} threads.
+ * Only built with the {@code java21} profile.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+@State(Scope.Benchmark)
+public class SessionBenchmark {
+    private static final int PLATFORM_THREADS = 512;
+
+    @Param({"10000", "100000", "1000000"})
+    public int sessions;
+
+    @Param({"1000"})
+    public int machines;
+
+    @Param({"1"})
+    public int latencyMillis;
+
+    @Param({"virtual", "platform"})
+    public String threads;
+
+    private List<VendingMachine> vendingMachines;
+    private CustomerSession session;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        vendingMachines = new ArrayList<>();
+        int stock = sessions / machines + 1;
+        for (int i = 0; i < machines; i++) {
+            vendingMachines.add(new VendingMachine("xyz-" + i, new MachineState(0, stock, stock),
+                    new SilentMachineDisplay(), MachineService.defaultService(), TransactionListener.NONE));
+        }
+        session = CustomerSession.of(5, 1);
+    }
+
+    @Benchmark
+    public long sessions() throws InterruptedException {
+        var hardwareEvents = HardwareEvents.every(Duration.ofMillis(latencyMillis));
+        var futures = new ArrayList<CompletableFuture<?>>(sessions);
+        try (var executor = open(hardwareEvents)) {
+            for (int i = 0; i < sessions; i++) {
+                futures.add(executor.submit(i % machines, session));
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        }
+        return futures.size();
+    }
+
+    private SessionExecutor open(HardwareEvents hardwareEvents) {
+        if (threads.equals("virtual")) {
+            return VirtualThreadSessions.open(vendingMachines, hardwareEvents);
+        }
+        return new SessionExecutor(vendingMachines, Executors.newFixedThreadPool(PLATFORM_THREADS), hardwareEvents);
+    }
+}
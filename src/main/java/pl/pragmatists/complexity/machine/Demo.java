@@ -1,8 +1,5 @@
 package pl.pragmatists.complexity.machine;
 
-// switch the package here to use different implementations
-import pl.pragmatists.complexity.machine.v7.VendingMachine;
-
 public class Demo {
     /*
         Vending machine actions:
@@ -11,10 +8,12 @@ public class Demo {
             0 -- return coins
 
             100 -- report issue to service
+
+        Pick the implementation with -Dmachine.version=v1 (or any other package name), v7 by default.
      */
 
     public static void main(String[] args) {
-        var vendingMachine = new VendingMachine();
+        var vendingMachine = Machines.create(System.getProperty("machine.version", "v7"));
         vendingMachine.insertCoins(10);
         vendingMachine.choose(1);
         vendingMachine.choose(2);
@@ -0,0 +1,49 @@
+package pl.pragmatists.complexity.machine;
+
+import pl.pragmatists.complexity.machine.common.Machine;
+import pl.pragmatists.complexity.machine.common.MachineDisplay;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Creates a {@link Machine} of a version picked by name (the name of its package), e.g. from configuration. Kept out of
+ * {@code common}, which every version depends on, so that {@code common} doesn't depend on the versions in turn.
+ */
+public final class Machines {
+    private static final Map<String, Function<MachineDisplay, Machine>> VERSIONS = new LinkedHashMap<>();
+
+    static {
+        VERSIONS.put("v1", pl.pragmatists.complexity.machine.v1.VendingMachine::new);
+        VERSIONS.put("v2", pl.pragmatists.complexity.machine.v2.VendingMachine::new);
+        VERSIONS.put("v3", pl.pragmatists.complexity.machine.v3.VendingMachine::new);
+        VERSIONS.put("v4", pl.pragmatists.complexity.machine.v4.VendingMachine::new);
+        VERSIONS.put("v5a", pl.pragmatists.complexity.machine.v5a.VendingMachine::new);
+        VERSIONS.put("v5b", pl.pragmatists.complexity.machine.v5b.VendingMachine::new);
+        VERSIONS.put("v6", pl.pragmatists.complexity.machine.v6.VendingMachine::new);
+        VERSIONS.put("v7", pl.pragmatists.complexity.machine.v7.VendingMachine::new);
+        VERSIONS.put("concurrent", pl.pragmatists.complexity.machine.concurrent.VendingMachine::new);
+    }
+
+    private Machines() {
+    }
+
+    public static Machine create(String version) {
+        return create(version, new MachineDisplay());
+    }
+
+    public static Machine create(String version, MachineDisplay machineDisplay) {
+        var constructor = VERSIONS.get(version);
+        if (constructor == null) {
+            throw new IllegalArgumentException(String.format(
+                    "Unknown version %s, known are %s", version, VERSIONS.keySet()));
+        }
+        return constructor.apply(machineDisplay);
+    }
+
+    public static Set<String> versions() {
+        return VERSIONS.keySet();
+    }
+}
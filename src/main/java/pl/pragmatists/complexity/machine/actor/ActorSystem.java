@@ -0,0 +1,64 @@
+package pl.pragmatists.complexity.machine.actor;
+
+import pl.pragmatists.complexity.machine.v7.VendingMachine;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fixed pool of worker threads that {@link MachineActor}s are sharded over, round robin. A machine always drains on
+ * the same worker, so its state stays in that worker's caches.
+ */
+public class ActorSystem implements AutoCloseable {
+    private final ExecutorService[] workers;
+    private final AtomicInteger nextWorker = new AtomicInteger();
+
+    public ActorSystem(int workers) {
+        if (workers < 1) {
+            throw new IllegalArgumentException(String.format("Number of workers must be positive, was %d", workers));
+        }
+        this.workers = new ExecutorService[workers];
+        for (int i = 0; i < workers; i++) {
+            var name = "machine-actor-worker-" + i;
+            this.workers[i] = Executors.newSingleThreadExecutor(task -> {
+                var thread = new Thread(task, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    public MachineActor spawn(VendingMachine machine) {
+        int worker = Math.floorMod(nextWorker.getAndIncrement(), workers.length);
+        return new MachineActor(machine, workers[worker]);
+    }
+
+    public int getWorkerCount() {
+        return workers.length;
+    }
+
+    /**
+     * Stops the workers once the commands already sent have been applied, waiting up to {@code timeout} for that.
+     * Commands sent afterwards are rejected.
+     */
+    public boolean close(Duration timeout) throws InterruptedException {
+        for (var worker : workers) {
+            worker.shutdown();
+        }
+        long deadline = System.nanoTime() + timeout.toNanos();
+        for (var worker : workers) {
+            if (!worker.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        close(Duration.ofSeconds(5));
+    }
+}
@@ -0,0 +1,21 @@
+package pl.pragmatists.complexity.machine.actor;
+
+import pl.pragmatists.complexity.machine.v7.VendingMachine;
+
+/**
+ * Completes with whether an item was sold.
+ */
+public final class Choose implements Command<Boolean> {
+    private final int selectedNumber;
+
+    public Choose(int selectedNumber) {
+        this.selectedNumber = selectedNumber;
+    }
+
+    @Override
+    public Boolean applyTo(VendingMachine machine) {
+        int stockBefore = machine.getChocoBarStock() + machine.getJuiceBoxStock();
+        machine.choose(selectedNumber);
+        return machine.getChocoBarStock() + machine.getJuiceBoxStock() < stockBefore;
+    }
+}
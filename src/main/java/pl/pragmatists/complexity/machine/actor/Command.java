@@ -0,0 +1,11 @@
+package pl.pragmatists.complexity.machine.actor;
+
+import pl.pragmatists.complexity.machine.v7.VendingMachine;
+
+/**
+ * Message sent to a {@link MachineActor}. Applied by the actor's drain loop, never concurrently with another command
+ * for the same machine.
+ */
+public interface Command<T> {
+    T applyTo(VendingMachine machine);
+}
@@ -0,0 +1,20 @@
+package pl.pragmatists.complexity.machine.actor;
+
+import pl.pragmatists.complexity.machine.v7.VendingMachine;
+
+/**
+ * Completes with the coin balance after the coins were inserted.
+ */
+public final class InsertCoins implements Command<Integer> {
+    private final int amount;
+
+    public InsertCoins(int amount) {
+        this.amount = amount;
+    }
+
+    @Override
+    public Integer applyTo(VendingMachine machine) {
+        machine.insertCoins(amount);
+        return machine.getCoinBalance();
+    }
+}
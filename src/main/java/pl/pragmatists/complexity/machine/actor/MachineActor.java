@@ -0,0 +1,126 @@
+package pl.pragmatists.complexity.machine.actor;
+
+import pl.pragmatists.complexity.machine.v7.VendingMachine;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Single-writer wrapper around a {@code v7} machine. Any thread may send commands; they are queued in a lock-free
+ * mailbox and applied by one drain loop at a time, run on the worker the machine was sharded to, so the machine itself
+ * stays single-threaded code. The drain loop takes up to {@value #BATCH_SIZE} commands at once, applies all of them and
+ * only then completes their futures.
+ * <p>
+ * Commands sent from one thread are applied in the order they were sent.
+ */
+public class MachineActor {
+    static final int BATCH_SIZE = 64;
+
+    private final VendingMachine machine;
+    private final Executor worker;
+    private final MpscQueue<Envelope<?>> mailbox = new MpscQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    private final Envelope<?>[] batch = new Envelope<?>[BATCH_SIZE];
+
+    MachineActor(VendingMachine machine, Executor worker) {
+        this.machine = machine;
+        this.worker = worker;
+    }
+
+    public <T> CompletableFuture<T> send(Command<T> command) {
+        var envelope = new Envelope<>(command);
+        mailbox.offer(envelope);
+        if (scheduled.compareAndSet(false, true)) {
+            worker.execute(this::drain);
+        }
+        return envelope.result;
+    }
+
+    public CompletableFuture<Integer> insertCoins(int amount) {
+        return send(new InsertCoins(amount));
+    }
+
+    public CompletableFuture<Boolean> choose(int selectedNumber) {
+        return send(new Choose(selectedNumber));
+    }
+
+    public CompletableFuture<Integer> returnCoins() {
+        return send(ReturnCoins.INSTANCE);
+    }
+
+    public String getMachineSerialId() {
+        return machine.getMachineSerialId();
+    }
+
+    private void drain() {
+        while (true) {
+            applyBatch();
+            if (mailbox.isEmpty()) {
+                scheduled.set(false);
+                if (mailbox.isEmpty() || !scheduled.compareAndSet(false, true)) {
+                    return;
+                }
+            } else if (yieldWorker()) {
+                return;
+            }
+        }
+    }
+
+    private void applyBatch() {
+        int count = 0;
+        Envelope<?> envelope;
+        while (count < BATCH_SIZE && (envelope = mailbox.poll()) != null) {
+            batch[count++] = envelope;
+        }
+        for (int i = 0; i < count; i++) {
+            batch[i].applyTo(machine);
+        }
+        for (int i = 0; i < count; i++) {
+            batch[i].complete();
+            batch[i] = null;
+        }
+    }
+
+    /**
+     * Lets other machines of this worker have their turn before the next batch. Once the system is closing the
+     * mailbox is drained right away instead.
+     */
+    private boolean yieldWorker() {
+        try {
+            worker.execute(this::drain);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    private static final class Envelope<T> {
+        private final Command<T> command;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private T value;
+        private RuntimeException failure;
+
+        private Envelope(Command<T> command) {
+            this.command = command;
+        }
+
+        private void applyTo(VendingMachine machine) {
+            try {
+                value = command.applyTo(machine);
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+        }
+
+        private void complete() {
+            if (failure != null) {
+                result.completeExceptionally(failure);
+            } else {
+                result.complete(value);
+            }
+        }
+    }
+}
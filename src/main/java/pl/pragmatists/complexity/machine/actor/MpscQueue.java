@@ -0,0 +1,70 @@
+package pl.pragmatists.complexity.machine.actor;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Unbounded lock-free queue for many producers and a single consumer. Producers swap themselves in as the tail with
+ * one atomic exchange and then link the previous tail to their node; the consumer just follows the links from its
+ * private head, so it never contends with producers on the same field.
+ * <p>
+ * Between a producer's exchange and its link the node is not reachable yet, so {@link #poll()} may return
+ * {@code null} for a moment even though an element is on its way; callers must not take that as "empty for good".
+ */
+final class MpscQueue<T> {
+    private static final VarHandle TAIL;
+    private static final VarHandle NEXT;
+
+    static {
+        try {
+            var lookup = MethodHandles.lookup();
+            TAIL = lookup.findVarHandle(MpscQueue.class, "tail", Node.class);
+            NEXT = lookup.findVarHandle(Node.class, "next", Node.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private Node<T> head = new Node<>(null);
+    @SuppressWarnings("unused") // accessed through TAIL
+    private volatile Node<T> tail = head;
+
+    void offer(T value) {
+        var node = new Node<>(value);
+        @SuppressWarnings("unchecked")
+        var previous = (Node<T>) TAIL.getAndSet(this, node);
+        NEXT.setRelease(previous, node);
+    }
+
+    /**
+     * Only to be called by the consumer.
+     */
+    T poll() {
+        @SuppressWarnings("unchecked")
+        var next = (Node<T>) NEXT.getAcquire(head);
+        if (next == null) {
+            return null;
+        }
+        head = next;
+        T value = next.value;
+        next.value = null;
+        return value;
+    }
+
+    /**
+     * Whether anything has been offered and not polled yet, including elements that are not linked yet.
+     */
+    boolean isEmpty() {
+        return tail == head;
+    }
+
+    private static final class Node<T> {
+        private T value;
+        @SuppressWarnings("unused") // accessed through NEXT
+        private Node<T> next;
+
+        private Node(T value) {
+            this.value = value;
+        }
+    }
+}
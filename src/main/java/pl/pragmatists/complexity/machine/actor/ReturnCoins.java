@@ -0,0 +1,20 @@
+package pl.pragmatists.complexity.machine.actor;
+
+import pl.pragmatists.complexity.machine.v7.VendingMachine;
+
+/**
+ * Completes with the number of coins returned.
+ */
+public final class ReturnCoins implements Command<Integer> {
+    public static final ReturnCoins INSTANCE = new ReturnCoins();
+
+    private ReturnCoins() {
+    }
+
+    @Override
+    public Integer applyTo(VendingMachine machine) {
+        int returned = machine.getCoinBalance();
+        machine.returnCoins();
+        return returned;
+    }
+}
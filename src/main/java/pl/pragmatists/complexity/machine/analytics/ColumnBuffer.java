@@ -0,0 +1,58 @@
+package pl.pragmatists.complexity.machine.analytics;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Growable byte array one column of a row group is encoded into. Integers are written as varints, 7 bits per byte,
+ * zigzag-encoded first so small negative numbers stay short.
+ */
+class ColumnBuffer {
+    private byte[] bytes;
+    private int size;
+
+    ColumnBuffer(int initialCapacity) {
+        bytes = new byte[Math.max(16, initialCapacity)];
+    }
+
+    void putByte(int value) {
+        ensureRoom(1);
+        bytes[size++] = (byte) value;
+    }
+
+    void putVarLong(long value) {
+        ensureRoom(10);
+        long zigzag = (value << 1) ^ (value >> 63);
+        while ((zigzag & ~0x7FL) != 0) {
+            bytes[size++] = (byte) ((zigzag & 0x7F) | 0x80);
+            zigzag >>>= 7;
+        }
+        bytes[size++] = (byte) zigzag;
+    }
+
+    void putBytes(byte[] value) {
+        putVarLong(value.length);
+        ensureRoom(value.length);
+        System.arraycopy(value, 0, bytes, size, value.length);
+        size += value.length;
+    }
+
+    /**
+     * Writes the column prefixed with its length, so readers can skip it.
+     */
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(size);
+        out.write(bytes, 0, size);
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    private void ensureRoom(int needed) {
+        if (size + needed > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + needed));
+        }
+    }
+}
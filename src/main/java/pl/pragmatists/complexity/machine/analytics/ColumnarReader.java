@@ -0,0 +1,105 @@
+package pl.pragmatists.complexity.machine.analytics;
+
+import pl.pragmatists.complexity.machine.journal.RecordType;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads back what a {@link ColumnarWriter} wrote, one row group at a time.
+ */
+public class ColumnarReader {
+    private static final RecordType[] TYPES = RecordType.values();
+
+    private ColumnarReader() {
+    }
+
+    /**
+     * Passes every row in {@code in} to {@code sink}, in the order they were written.
+     *
+     * @return number of rows read
+     */
+    public static long read(InputStream in, RowSink sink) {
+        try {
+            var data = new DataInputStream(new BufferedInputStream(in, 1 << 16));
+            if (data.readInt() != ColumnarWriter.MAGIC || data.readByte() != ColumnarWriter.VERSION) {
+                throw new IllegalArgumentException("Not a columnar transaction export");
+            }
+            long total = 0;
+            int rows;
+            while ((rows = data.readInt()) > 0) {
+                readRowGroup(data, rows, sink);
+                total += rows;
+            }
+            return total;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void readRowGroup(DataInputStream data, int rows, RowSink sink) throws IOException {
+        var timestamps = new Column(data);
+        String[] serialEntries = readEntries(data);
+        var serials = new Column(data);
+        var types = new Column(data);
+        String[] productEntries = readEntries(data);
+        var products = new Column(data);
+        var amounts = new Column(data);
+        var balances = new Column(data);
+
+        long timestamp = 0;
+        int balance = 0;
+        for (int i = 0; i < rows; i++) {
+            timestamp += timestamps.nextVarLong();
+            balance += (int) balances.nextVarLong();
+            sink.append(timestamp, serialEntries[(int) serials.nextVarLong()], TYPES[types.nextByte()],
+                    productEntries[(int) products.nextVarLong()], (int) amounts.nextVarLong(), balance);
+        }
+    }
+
+    private static String[] readEntries(DataInputStream data) throws IOException {
+        var entries = new String[data.readInt()];
+        var column = new Column(data);
+        for (int i = 0; i < entries.length; i++) {
+            entries[i] = column.nextString();
+        }
+        return entries;
+    }
+
+    private static class Column {
+        private final byte[] bytes;
+        private int position;
+
+        Column(DataInputStream data) throws IOException {
+            bytes = new byte[data.readInt()];
+            data.readFully(bytes);
+        }
+
+        int nextByte() {
+            return bytes[position++];
+        }
+
+        long nextVarLong() {
+            long zigzag = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[position++];
+                zigzag |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return (zigzag >>> 1) ^ -(zigzag & 1);
+        }
+
+        String nextString() {
+            int length = (int) nextVarLong();
+            var value = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+    }
+}
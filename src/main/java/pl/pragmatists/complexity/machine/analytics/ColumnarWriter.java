@@ -0,0 +1,116 @@
+package pl.pragmatists.complexity.machine.analytics;
+
+import pl.pragmatists.complexity.machine.journal.RecordType;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Writes transactions column by column, in row groups of a fixed number of rows, so any number of rows is written in
+ * memory bounded by the row group size.
+ * <p>
+ * The stream starts with a magic number and version. Each row group is its row count followed by its columns, each
+ * prefixed with its length in bytes:
+ * <ul>
+ * <li>timestamp: delta from the previous row, varint</li>
+ * <li>machine serial id and product: dictionary of the group's distinct values, then an entry number per row, varint</li>
+ * <li>record type: one byte per row</li>
+ * <li>amount: varint</li>
+ * <li>balance: delta from the previous row, varint</li>
+ * </ul>
+ * Deltas start from 0 in every group, so groups can be decoded on their own. A row count of 0 ends the stream.
+ */
+public class ColumnarWriter implements RowSink, AutoCloseable {
+    static final int MAGIC = 0x564D4331;
+    static final int VERSION = 1;
+
+    private final DataOutputStream out;
+    private final int rowGroupSize;
+    private final ColumnBuffer timestamps;
+    private final Dictionary serials;
+    private final ColumnBuffer types;
+    private final Dictionary products;
+    private final ColumnBuffer amounts;
+    private final ColumnBuffer balances;
+    private int rows;
+    private long lastTimestamp;
+    private int lastBalance;
+
+    public ColumnarWriter(OutputStream out, int rowGroupSize) {
+        if (rowGroupSize < 1) {
+            throw new IllegalArgumentException(String.format("Row group size must be positive, was %d", rowGroupSize));
+        }
+        this.out = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+        this.rowGroupSize = rowGroupSize;
+        this.timestamps = new ColumnBuffer(rowGroupSize * 2);
+        this.serials = new Dictionary(rowGroupSize);
+        this.types = new ColumnBuffer(rowGroupSize);
+        this.products = new Dictionary(rowGroupSize);
+        this.amounts = new ColumnBuffer(rowGroupSize);
+        this.balances = new ColumnBuffer(rowGroupSize);
+        try {
+            this.out.writeInt(MAGIC);
+            this.out.writeByte(VERSION);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void append(long timestamp, String machineSerialId, RecordType type, String product, int amount,
+                       int balance) {
+        timestamps.putVarLong(timestamp - lastTimestamp);
+        serials.add(machineSerialId);
+        types.putByte(type.ordinal());
+        products.add(product);
+        amounts.putVarLong(amount);
+        balances.putVarLong((long) balance - lastBalance);
+        lastTimestamp = timestamp;
+        lastBalance = balance;
+        if (++rows == rowGroupSize) {
+            writeRowGroup();
+        }
+    }
+
+    private void writeRowGroup() {
+        try {
+            out.writeInt(rows);
+            timestamps.writeTo(out);
+            serials.writeTo(out);
+            types.writeTo(out);
+            products.writeTo(out);
+            amounts.writeTo(out);
+            balances.writeTo(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        timestamps.clear();
+        serials.clear();
+        types.clear();
+        products.clear();
+        amounts.clear();
+        balances.clear();
+        rows = 0;
+        lastTimestamp = 0;
+        lastBalance = 0;
+    }
+
+    /**
+     * Writes the last, partial row group and the end of the stream, and closes the underlying stream.
+     */
+    @Override
+    public void close() {
+        if (rows > 0) {
+            writeRowGroup();
+        }
+        try {
+            out.writeInt(0);
+            out.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
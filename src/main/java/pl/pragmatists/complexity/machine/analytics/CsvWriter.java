@@ -0,0 +1,46 @@
+package pl.pragmatists.complexity.machine.analytics;
+
+import pl.pragmatists.complexity.machine.journal.RecordType;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes transactions as CSV, one line per row. The baseline {@link ColumnarWriter} is compared against.
+ */
+public class CsvWriter implements RowSink, AutoCloseable {
+    private final Writer out;
+
+    public CsvWriter(OutputStream out) {
+        this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+        write("timestamp,machine,type,product,amount,balance\n");
+    }
+
+    @Override
+    public void append(long timestamp, String machineSerialId, RecordType type, String product, int amount,
+                       int balance) {
+        write(timestamp + "," + machineSerialId + "," + type + "," + product + "," + amount + "," + balance + "\n");
+    }
+
+    private void write(String line) {
+        try {
+            out.write(line);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            out.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
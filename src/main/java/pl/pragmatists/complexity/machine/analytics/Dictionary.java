@@ -0,0 +1,53 @@
+package pl.pragmatists.complexity.machine.analytics;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Numbers the distinct strings of a column within a row group, in order of first appearance. The strings are written
+ * once at the start of the column, the rows only carry their numbers.
+ */
+class Dictionary {
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final ColumnBuffer entries = new ColumnBuffer(256);
+    private final ColumnBuffer rows;
+    private String last;
+    private int lastId;
+
+    Dictionary(int rowGroupSize) {
+        rows = new ColumnBuffer(rowGroupSize);
+    }
+
+    void add(String value) {
+        // consecutive rows mostly come from the same machine, don't hash its serial every time
+        if (!value.equals(last)) {
+            lastId = ids.computeIfAbsent(value, this::newEntry);
+            last = value;
+        }
+        rows.putVarLong(lastId);
+    }
+
+    private int newEntry(String value) {
+        entries.putBytes(value.getBytes(StandardCharsets.UTF_8));
+        return ids.size();
+    }
+
+    /**
+     * Writes the number of entries, the entries (length-prefixed UTF-8) and then the rows' entry numbers.
+     */
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(ids.size());
+        entries.writeTo(out);
+        rows.writeTo(out);
+    }
+
+    void clear() {
+        ids.clear();
+        entries.clear();
+        rows.clear();
+        last = null;
+    }
+}
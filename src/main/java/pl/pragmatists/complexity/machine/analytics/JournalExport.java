@@ -0,0 +1,29 @@
+package pl.pragmatists.complexity.machine.analytics;
+
+import pl.pragmatists.complexity.machine.journal.MachineState;
+import pl.pragmatists.complexity.machine.journal.TransactionJournal;
+
+/**
+ * Feeds the records kept in a machine's journal to an export.
+ */
+public class JournalExport {
+    private JournalExport() {
+    }
+
+    public static void export(TransactionJournal journal, RowSink sink) {
+        String machineSerialId = journal.getMachineSerialId();
+        journal.replay((timestamp, type, product, amount, balance) ->
+                sink.append(timestamp, machineSerialId, type, productName(product), amount, balance));
+    }
+
+    static String productName(int product) {
+        switch (product) {
+            case MachineState.CHOCO_BAR:
+                return "choco bar";
+            case MachineState.JUICE_BOX:
+                return "juice box";
+            default:
+                return "";
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package pl.pragmatists.complexity.machine.analytics;
+
+import pl.pragmatists.complexity.machine.journal.RecordType;
+
+/**
+ * Takes exported transactions one row at a time. {@code product} is empty unless something was sold; {@code amount}
+ * is the number of coins inserted or returned, or the price of the sold product; {@code balance} is the coin balance
+ * after the transaction.
+ */
+@FunctionalInterface
+public interface RowSink {
+    void append(long timestamp, String machineSerialId, RecordType type, String product, int amount, int balance);
+}
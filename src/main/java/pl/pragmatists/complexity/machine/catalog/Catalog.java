@@ -0,0 +1,48 @@
+package pl.pragmatists.complexity.machine.catalog;
+
+import java.util.Arrays;
+
+/**
+ * What a machine sells: the product and initial stock for each slot. Slot codes are what customers choose on the
+ * keypad, so they can't clash with the other choices ({@code 0} and {@code 100}).
+ */
+public class Catalog {
+    public static final int MIN_SLOT = 1;
+    public static final int MAX_SLOT = 99;
+
+    private final Product[] products = new Product[MAX_SLOT + 1];
+    private final int[] initialStock = new int[MAX_SLOT + 1];
+
+    public static Catalog defaultCatalog() {
+        return new Catalog()
+                .add(1, new Product("choco bar", 5), 5)
+                .add(2, new Product("juice box", 7), 5);
+    }
+
+    public Catalog add(int slot, Product product, int stock) {
+        if (!isSlot(slot)) {
+            throw new IllegalArgumentException(String.format("Slot must be between %d and %d, was %d", MIN_SLOT, MAX_SLOT, slot));
+        }
+        if (products[slot] != null) {
+            throw new IllegalArgumentException(String.format("Slot %d already holds %s", slot, products[slot].getName()));
+        }
+        if (stock < 0) {
+            throw new IllegalArgumentException(String.format("Stock can't be negative, was %d", stock));
+        }
+        products[slot] = product;
+        initialStock[slot] = stock;
+        return this;
+    }
+
+    public static boolean isSlot(int code) {
+        return code >= MIN_SLOT && code <= MAX_SLOT;
+    }
+
+    Product[] products() {
+        return Arrays.copyOf(products, products.length);
+    }
+
+    int[] initialStock() {
+        return Arrays.copyOf(initialStock, initialStock.length);
+    }
+}
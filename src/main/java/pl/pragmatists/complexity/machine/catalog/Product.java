@@ -0,0 +1,22 @@
+package pl.pragmatists.complexity.machine.catalog;
+
+public final class Product {
+    private final String name;
+    private final int price;
+
+    public Product(String name, int price) {
+        if (price < 0) {
+            throw new IllegalArgumentException(String.format("Price of %s can't be negative, was %d", name, price));
+        }
+        this.name = name;
+        this.price = price;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getPrice() {
+        return price;
+    }
+}
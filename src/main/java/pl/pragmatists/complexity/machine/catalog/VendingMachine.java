@@ -0,0 +1,118 @@
+package pl.pragmatists.complexity.machine.catalog;
+
+import pl.pragmatists.complexity.machine.common.DisplayEvent;
+import pl.pragmatists.complexity.machine.common.MachineDisplay;
+import pl.pragmatists.complexity.machine.v7.MachineService;
+
+/**
+ * v7 machine selling whatever its {@link Catalog} says instead of hardcoded choco bars and juice boxes. Products and
+ * their stock are kept in arrays indexed by slot code, and the number of non-empty slots is kept up to date, so both
+ * choosing a slot and checking whether anything is left for sale take constant time.
+ */
+public class VendingMachine {
+    private final String machineSerialId = "xyz-109";
+    private final MachineService machineService = MachineService.defaultService();
+
+    private final Product[] products;
+    private final int[] stock;
+    private int nonEmptySlots;
+    private int coinBalance = 0;
+
+    public void choose(int selectedNumber) {
+        if (!stockAvailable()) {
+            display(DisplayEvent.NO_ITEMS_LEFT);
+            returnCoins();
+            return;
+        }
+
+        if (Catalog.isSlot(selectedNumber) && products[selectedNumber] != null) {
+            sellItem(selectedNumber);
+            return;
+        }
+
+        var selectedAction = VendingMachineAction.of(selectedNumber);
+        selectedAction.performOn(this);
+    }
+
+    private void sellItem(int slot) {
+        var product = products[slot];
+        if (coinBalance < product.getPrice()) {
+            display(DisplayEvent.NOT_ENOUGH_COINS, product.getName(), product.getPrice(), coinBalance);
+            return;
+        }
+
+        if (stock[slot] == 0) {
+            display(DisplayEvent.ITEM_UNAVAILABLE, product.getName(), 0, 0);
+            return;
+        }
+
+        if (--stock[slot] == 0) {
+            nonEmptySlots--;
+        }
+        coinBalance -= product.getPrice();
+        display(DisplayEvent.ITEM_SOLD, product.getName(), coinBalance, 0);
+    }
+
+    public void insertCoins(int amount) {
+        coinBalance += amount;
+        display(DisplayEvent.COINS_INSERTED, null, amount, coinBalance);
+    }
+
+    public void returnCoins() {
+        display(DisplayEvent.COINS_RETURNED, null, coinBalance, 0);
+        coinBalance = 0;
+    }
+
+    void reportIssue() {
+        machineService.reportIssue(machineSerialId);
+    }
+
+    public boolean isAvailable(int slot) {
+        return getStock(slot) > 0;
+    }
+
+    void display(DisplayEvent event) {
+        display(event, null, 0, 0);
+    }
+
+    private void display(DisplayEvent event, String item, int first, int second) {
+        machineDisplay.display(event, item, first, second);
+    }
+
+    private boolean stockAvailable() {
+        return nonEmptySlots > 0;
+    }
+
+    public int getStock(int slot) {
+        return Catalog.isSlot(slot) ? stock[slot] : 0;
+    }
+
+    public int getCoinBalance() {
+        return coinBalance;
+    }
+
+    public String getMachineSerialId() {
+        return machineSerialId;
+    }
+
+    private final MachineDisplay machineDisplay;
+
+    public VendingMachine() {
+        this(new MachineDisplay());
+    }
+
+    public VendingMachine(MachineDisplay machineDisplay) {
+        this(Catalog.defaultCatalog(), machineDisplay);
+    }
+
+    public VendingMachine(Catalog catalog, MachineDisplay machineDisplay) {
+        this.products = catalog.products();
+        this.stock = catalog.initialStock();
+        for (int slotStock : stock) {
+            if (slotStock > 0) {
+                nonEmptySlots++;
+            }
+        }
+        this.machineDisplay = machineDisplay;
+    }
+}
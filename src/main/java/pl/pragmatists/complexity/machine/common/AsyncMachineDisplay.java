@@ -0,0 +1,249 @@
+package pl.pragmatists.complexity.machine.common;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Display that hands messages over to a single writer thread through a bounded ring buffer. Events are rendered by the
+ * writer, which takes whatever has piled up and writes it to the channel in one go, so callers never wait for the
+ * terminal (unless {@link OverflowPolicy#BLOCK} is chosen and the buffer is full).
+ */
+public class AsyncMachineDisplay extends MachineDisplay implements AutoCloseable {
+    public enum OverflowPolicy {
+        BLOCK,
+        DROP_OLDEST,
+        DROP_NEWEST
+    }
+
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final WritableByteChannel channel;
+    private final OverflowPolicy policy;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+
+    private final String[] messages;
+    private final DisplayEvent[] events;
+    private final String[] items;
+    private final int[] firsts;
+    private final int[] seconds;
+    private int head;
+    private int size;
+    private long dropped;
+    private boolean closed;
+
+    private final Thread writer;
+
+    public AsyncMachineDisplay() {
+        this(Channels.newChannel(new FileOutputStream(FileDescriptor.out)), DEFAULT_CAPACITY, OverflowPolicy.DROP_OLDEST);
+    }
+
+    public AsyncMachineDisplay(WritableByteChannel channel, int capacity, OverflowPolicy policy) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException(String.format("Capacity must be positive, was %d", capacity));
+        }
+        this.channel = channel;
+        this.policy = policy;
+        this.messages = new String[capacity];
+        this.events = new DisplayEvent[capacity];
+        this.items = new String[capacity];
+        this.firsts = new int[capacity];
+        this.seconds = new int[capacity];
+        this.writer = new Thread(this::writeLoop, "machine-display-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public void display(String message) {
+        enqueue(message, null, null, 0, 0);
+    }
+
+    @Override
+    public void display(DisplayEvent event, String item, int first, int second) {
+        enqueue(null, event, item, first, second);
+    }
+
+    /**
+     * Messages lost because the buffer was full, the display was already closed or the channel failed.
+     */
+    public long getDroppedCount() {
+        lock.lock();
+        try {
+            return dropped;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops accepting messages, writes out everything already queued and waits for the writer to finish.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signal();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        writer.join();
+    }
+
+    private void enqueue(String message, DisplayEvent event, String item, int first, int second) {
+        lock.lock();
+        try {
+            if (!makeRoom()) {
+                dropped++;
+                return;
+            }
+            int tail = (head + size) % messages.length;
+            messages[tail] = message;
+            events[tail] = event;
+            items[tail] = item;
+            firsts[tail] = first;
+            seconds[tail] = second;
+            size++;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean makeRoom() {
+        if (closed) {
+            return false;
+        }
+        if (size < messages.length) {
+            return true;
+        }
+
+        switch (policy) {
+            case BLOCK:
+                while (size == messages.length && !closed) {
+                    notFull.awaitUninterruptibly();
+                }
+                return !closed;
+            case DROP_OLDEST:
+                release(head);
+                head = (head + 1) % messages.length;
+                size--;
+                dropped++;
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private void writeLoop() {
+        var batch = new Batch(messages.length);
+        var text = new StringBuilder();
+        while (takeBatch(batch)) {
+            for (int i = 0; i < batch.size; i++) {
+                text.append(batch.messages[i] != null
+                        ? batch.messages[i]
+                        : batch.events[i].render(batch.items[i], batch.firsts[i], batch.seconds[i]));
+                text.append(LINE_SEPARATOR);
+            }
+            if (!write(text)) {
+                countDropped(batch.size);
+            }
+            batch.clear();
+            text.setLength(0);
+        }
+    }
+
+    private boolean takeBatch(Batch batch) {
+        lock.lock();
+        try {
+            while (size == 0 && !closed) {
+                notEmpty.awaitUninterruptibly();
+            }
+            if (size == 0) {
+                return false;
+            }
+            for (; size > 0; size--) {
+                batch.add(messages[head], events[head], items[head], firsts[head], seconds[head]);
+                release(head);
+                head = (head + 1) % messages.length;
+            }
+            notFull.signalAll();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(int index) {
+        messages[index] = null;
+        events[index] = null;
+        items[index] = null;
+    }
+
+    private boolean write(CharSequence text) {
+        var buffer = ByteBuffer.wrap(text.toString().getBytes(StandardCharsets.UTF_8));
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void countDropped(int count) {
+        lock.lock();
+        try {
+            dropped += count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static class Batch {
+        private final String[] messages;
+        private final DisplayEvent[] events;
+        private final String[] items;
+        private final int[] firsts;
+        private final int[] seconds;
+        private int size;
+
+        private Batch(int capacity) {
+            messages = new String[capacity];
+            events = new DisplayEvent[capacity];
+            items = new String[capacity];
+            firsts = new int[capacity];
+            seconds = new int[capacity];
+        }
+
+        private void add(String message, DisplayEvent event, String item, int first, int second) {
+            messages[size] = message;
+            events[size] = event;
+            items[size] = item;
+            firsts[size] = first;
+            seconds[size] = second;
+            size++;
+        }
+
+        private void clear() {
+            Arrays.fill(messages, 0, size, null);
+            Arrays.fill(events, 0, size, null);
+            Arrays.fill(items, 0, size, null);
+            size = 0;
+        }
+    }
+}
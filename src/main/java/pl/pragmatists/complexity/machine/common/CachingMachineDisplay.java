@@ -0,0 +1,32 @@
+package pl.pragmatists.complexity.machine.common;
+
+/**
+ * Renders events through a {@link MessageCache} and passes the text on to the target display.
+ */
+public class CachingMachineDisplay extends MachineDisplay {
+    private final MachineDisplay target;
+    private final MessageCache cache;
+
+    public CachingMachineDisplay(MachineDisplay target) {
+        this(target, new MessageCache());
+    }
+
+    public CachingMachineDisplay(MachineDisplay target, MessageCache cache) {
+        this.target = target;
+        this.cache = cache;
+    }
+
+    @Override
+    public void display(String message) {
+        target.display(message);
+    }
+
+    @Override
+    public void display(DisplayEvent event, String item, int first, int second) {
+        target.display(cache.render(event, item, first, second));
+    }
+
+    public MessageCache getCache() {
+        return cache;
+    }
+}
@@ -0,0 +1,98 @@
+package pl.pragmatists.complexity.machine.common;
+
+import java.util.function.ToIntFunction;
+
+/**
+ * Maps keypad codes to choices without allocating on lookup. Small non-negative codes are kept in a dense array,
+ * the remaining (sparse) ones, such as {@code 100}, in a small open-addressing table keyed by a primitive {@code int}.
+ */
+public final class ChoiceTable<T> {
+    private static final int DENSE_LIMIT = 64;
+
+    private final Object[] dense;
+    private final int[] sparseCodes;
+    private final Object[] sparseChoices;
+    private final int sparseMask;
+    private final T fallback;
+
+    private ChoiceTable(Object[] dense, int[] sparseCodes, Object[] sparseChoices, T fallback) {
+        this.dense = dense;
+        this.sparseCodes = sparseCodes;
+        this.sparseChoices = sparseChoices;
+        this.sparseMask = sparseCodes.length - 1;
+        this.fallback = fallback;
+    }
+
+    public static <T> ChoiceTable<T> of(T[] choices, ToIntFunction<T> codeOf, T fallback) {
+        int denseLength = 0;
+        int sparseCount = 0;
+        for (T choice : choices) {
+            if (choice == fallback) {
+                continue;
+            }
+            int code = codeOf.applyAsInt(choice);
+            if (isDense(code)) {
+                denseLength = Math.max(denseLength, code + 1);
+            } else {
+                sparseCount++;
+            }
+        }
+
+        var dense = new Object[denseLength];
+        int capacity = Integer.highestOneBit(Math.max(1, sparseCount) * 2 - 1) << 1;
+        var sparseCodes = new int[capacity];
+        var sparseChoices = new Object[capacity];
+        for (T choice : choices) {
+            if (choice == fallback) {
+                continue;
+            }
+            int code = codeOf.applyAsInt(choice);
+            if (isDense(code)) {
+                requireUnique(dense[code], code);
+                dense[code] = choice;
+            } else {
+                int slot = slotOf(code, capacity - 1);
+                while (sparseChoices[slot] != null) {
+                    requireUnique(sparseCodes[slot] == code ? sparseChoices[slot] : null, code);
+                    slot = (slot + 1) & (capacity - 1);
+                }
+                sparseCodes[slot] = code;
+                sparseChoices[slot] = choice;
+            }
+        }
+        return new ChoiceTable<>(dense, sparseCodes, sparseChoices, fallback);
+    }
+
+    @SuppressWarnings("unchecked")
+    public T get(int code) {
+        if (code >= 0 && code < dense.length) {
+            Object choice = dense[code];
+            return choice == null ? fallback : (T) choice;
+        }
+
+        int slot = slotOf(code, sparseMask);
+        Object choice;
+        while ((choice = sparseChoices[slot]) != null) {
+            if (sparseCodes[slot] == code) {
+                return (T) choice;
+            }
+            slot = (slot + 1) & sparseMask;
+        }
+        return fallback;
+    }
+
+    private static boolean isDense(int code) {
+        return code >= 0 && code < DENSE_LIMIT;
+    }
+
+    private static int slotOf(int code, int mask) {
+        int hash = code * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private static void requireUnique(Object existing, int code) {
+        if (existing != null) {
+            throw new IllegalArgumentException(String.format("Duplicate choice code %d", code));
+        }
+    }
+}
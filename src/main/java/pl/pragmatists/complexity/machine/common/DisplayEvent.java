@@ -0,0 +1,52 @@
+package pl.pragmatists.complexity.machine.common;
+
+/**
+ * Messages a machine can show. Arguments are passed as primitives (and a constant item name), so nothing is formatted
+ * until a display actually needs the text.
+ */
+public enum DisplayEvent {
+    ITEM_SOLD {
+        @Override
+        public String render(String item, int balance, int unused) {
+            return "Sold " + item + ", current balance: " + balance;
+        }
+    },
+    NOT_ENOUGH_COINS {
+        @Override
+        public String render(String item, int price, int balance) {
+            return "Can't sell " + item + " (price: " + price + "), current balance: " + balance;
+        }
+    },
+    ITEM_UNAVAILABLE {
+        @Override
+        public String render(String item, int unused, int unusedToo) {
+            return item + " unavailable";
+        }
+    },
+    COINS_INSERTED {
+        @Override
+        public String render(String item, int amount, int balance) {
+            return "Inserted " + amount + " coin(s), current balance: " + balance;
+        }
+    },
+    COINS_RETURNED {
+        @Override
+        public String render(String item, int amount, int unused) {
+            return "Returned " + amount + " coin(s)";
+        }
+    },
+    NO_ITEMS_LEFT {
+        @Override
+        public String render(String item, int unused, int unusedToo) {
+            return "No items left for sale";
+        }
+    },
+    CHOICE_UNAVAILABLE {
+        @Override
+        public String render(String item, int unused, int unusedToo) {
+            return "Choice unavailable";
+        }
+    };
+
+    public abstract String render(String item, int first, int second);
+}
@@ -0,0 +1,23 @@
+package pl.pragmatists.complexity.machine.common;
+
+/**
+ * What every version of the vending machine can do, so code can work with any of them. {@code machine.Machines}
+ * creates one by version name.
+ */
+public interface Machine {
+    void choose(int selectedNumber);
+
+    void insertCoins(int amount);
+
+    void returnCoins();
+
+    boolean isChocoBarAvailable();
+
+    boolean isJuiceBoxAvailable();
+
+    int getChocoBarStock();
+
+    int getJuiceBoxStock();
+
+    int getCoinBalance();
+}
@@ -4,4 +4,8 @@ public class MachineDisplay {
     public void display(String message) {
         System.out.println(message);
     }
+
+    public void display(DisplayEvent event, String item, int first, int second) {
+        display(event.render(item, first, second));
+    }
 }
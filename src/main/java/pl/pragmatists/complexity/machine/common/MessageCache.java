@@ -0,0 +1,115 @@
+package pl.pragmatists.complexity.machine.common;
+
+/**
+ * Bounded cache of rendered display messages, keyed by event and arguments. Balances and prices repeat all the time,
+ * so most messages a machine shows have been rendered before and the same {@code String} can be handed out again.
+ * <p>
+ * The cache is set-associative, like a CPU cache: a key can only live in one of {@value #WAYS} entries of the set its
+ * hash picks, and a miss evicts the least recently used entry of that set. Looking up a message allocates nothing.
+ */
+public class MessageCache {
+    private static final int WAYS = 4;
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private final int setMask;
+    private final DisplayEvent[] events;
+    private final String[] items;
+    private final int[] firsts;
+    private final int[] seconds;
+    private final String[] messages;
+    private final long[] lastUsed;
+    private long clock;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public MessageCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity maximum number of messages kept, rounded up to a power of two of at least {@value #WAYS}
+     */
+    public MessageCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException(String.format("Capacity must be positive, was %d", capacity));
+        }
+        int entries = Math.max(WAYS, Integer.highestOneBit(capacity - 1) << 1);
+        this.setMask = entries / WAYS - 1;
+        this.events = new DisplayEvent[entries];
+        this.items = new String[entries];
+        this.firsts = new int[entries];
+        this.seconds = new int[entries];
+        this.messages = new String[entries];
+        this.lastUsed = new long[entries];
+    }
+
+    /**
+     * Same text as {@link DisplayEvent#render(String, int, int)}, rendered only if it isn't cached.
+     */
+    public synchronized String render(DisplayEvent event, String item, int first, int second) {
+        int set = (hash(event, item, first, second) & setMask) * WAYS;
+        int victim = set;
+        for (int entry = set; entry < set + WAYS; entry++) {
+            if (events[entry] == event && firsts[entry] == first && seconds[entry] == second
+                    && sameItem(items[entry], item)) {
+                hits++;
+                lastUsed[entry] = ++clock;
+                return messages[entry];
+            }
+            if (lastUsed[entry] < lastUsed[victim]) {
+                victim = entry;
+            }
+        }
+
+        misses++;
+        if (events[victim] != null) {
+            evictions++;
+        }
+        var message = event.render(item, first, second);
+        events[victim] = event;
+        items[victim] = item;
+        firsts[victim] = first;
+        seconds[victim] = second;
+        messages[victim] = message;
+        lastUsed[victim] = ++clock;
+        return message;
+    }
+
+    public int getCapacity() {
+        return messages.length;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Share of lookups served from the cache, 0 before the first one.
+     */
+    public synchronized double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    private static boolean sameItem(String cached, String item) {
+        return cached == item || cached != null && cached.equals(item);
+    }
+
+    private static int hash(DisplayEvent event, String item, int first, int second) {
+        int hash = event.ordinal();
+        hash = 31 * hash + (item == null ? 0 : item.hashCode());
+        hash = 31 * hash + first;
+        hash = 31 * hash + second;
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,38 @@
+package pl.pragmatists.complexity.machine.common;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Passes every n-th message on to the target display; only those get rendered.
+ */
+public class SamplingMachineDisplay extends MachineDisplay {
+    private final MachineDisplay target;
+    private final int every;
+    private final AtomicLong counter = new AtomicLong();
+
+    public SamplingMachineDisplay(MachineDisplay target, int every) {
+        if (every < 1) {
+            throw new IllegalArgumentException(String.format("Sampling interval must be positive, was %d", every));
+        }
+        this.target = target;
+        this.every = every;
+    }
+
+    @Override
+    public void display(String message) {
+        if (sampled()) {
+            target.display(message);
+        }
+    }
+
+    @Override
+    public void display(DisplayEvent event, String item, int first, int second) {
+        if (sampled()) {
+            target.display(event, item, first, second);
+        }
+    }
+
+    private boolean sampled() {
+        return counter.getAndIncrement() % every == 0;
+    }
+}
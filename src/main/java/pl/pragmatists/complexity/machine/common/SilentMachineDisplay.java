@@ -0,0 +1,14 @@
+package pl.pragmatists.complexity.machine.common;
+
+/**
+ * Display for headless machines: events are dropped without being rendered.
+ */
+public class SilentMachineDisplay extends MachineDisplay {
+    @Override
+    public void display(String message) {
+    }
+
+    @Override
+    public void display(DisplayEvent event, String item, int first, int second) {
+    }
+}
@@ -0,0 +1,19 @@
+package pl.pragmatists.complexity.machine.common;
+
+/**
+ * Notified about every change of a machine's state, after it happened. Products are identified by the number they are
+ * chosen with.
+ */
+public interface TransactionListener {
+    TransactionListener NONE = new TransactionListener() {
+    };
+
+    default void coinsInserted(int amount, int balance) {
+    }
+
+    default void itemSold(int product, int price, int balance) {
+    }
+
+    default void coinsReturned(int amount) {
+    }
+}
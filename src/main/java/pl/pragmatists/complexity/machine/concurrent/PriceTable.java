@@ -0,0 +1,32 @@
+package pl.pragmatists.complexity.machine.concurrent;
+
+/**
+ * Prices in effect from one price change to the next. Never modified: a price change publishes a new table.
+ */
+public final class PriceTable {
+    private final int chocoBarPrice;
+    private final int juiceBoxPrice;
+    private final int generation;
+
+    PriceTable(int chocoBarPrice, int juiceBoxPrice, int generation) {
+        if (chocoBarPrice < 0 || juiceBoxPrice < 0) {
+            throw new IllegalArgumentException(String.format(
+                    "Prices can't be negative, were %d and %d", chocoBarPrice, juiceBoxPrice));
+        }
+        this.chocoBarPrice = chocoBarPrice;
+        this.juiceBoxPrice = juiceBoxPrice;
+        this.generation = generation;
+    }
+
+    public int getChocoBarPrice() {
+        return chocoBarPrice;
+    }
+
+    public int getJuiceBoxPrice() {
+        return juiceBoxPrice;
+    }
+
+    int getGeneration() {
+        return generation;
+    }
+}
@@ -0,0 +1,264 @@
+package pl.pragmatists.complexity.machine.concurrent;
+
+import pl.pragmatists.complexity.machine.common.DisplayEvent;
+import pl.pragmatists.complexity.machine.common.Machine;
+import pl.pragmatists.complexity.machine.common.MachineDisplay;
+import pl.pragmatists.complexity.machine.common.TransactionListener;
+import pl.pragmatists.complexity.machine.v7.MachineService;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * v7 machine that can be used by several threads at once (coin acceptor, keypad, telemetry, operator). Balance and both
+ * stocks are packed into a single {@code long}, so a sale -- check balance, check stock, decrement both -- is one
+ * compare-and-set and no lock is taken.
+ * <p>
+ * Prices live in an immutable {@link PriceTable}; {@link #changePrices(int, int)} publishes a new one and then stamps
+ * its generation into the state. A sale only goes through if the state still carries the generation of the table it
+ * took the price from, so every sale is charged the price that was in effect when the item left the stock.
+ * <p>
+ * The generation is only 8 bits wide and wraps around. A sale that reads the state and then stalls while a multiple of
+ * 256 price changes go by finds its old generation again, so its compare-and-set succeeds and it is charged a price
+ * that many changes stale (the ABA problem). Prices are changed by an operator, a few times a day, so this can't happen
+ * in practice. Widening the generation would take bits from the balance or the stocks.
+ * <p>
+ * Layout: bits 0-23 coin balance, bits 24-31 price table generation, bits 32-47 choco bar stock, bits 48-63 juice box
+ * stock.
+ */
+public class VendingMachine implements Machine {
+    private static final int CHOCO_BAR = 1;
+    private static final int JUICE_BOX = 2;
+    private static final int INITIAL_CHOCO_BAR_PRICE = 5;
+    private static final int INITIAL_JUICE_BOX_PRICE = 7;
+    private static final int INITIAL_STOCK = 5;
+
+    private static final int GENERATION_SHIFT = 24;
+    private static final int CHOCO_BAR_SHIFT = 32;
+    private static final int JUICE_BOX_SHIFT = 48;
+    private static final long BALANCE_MASK = 0xFF_FFFFL;
+    private static final int GENERATION_MASK = 0xFF;
+    private static final long GENERATION_BITS = (long) GENERATION_MASK << GENERATION_SHIFT;
+    private static final int STOCK_MASK = 0xFFFF;
+
+    private static final VarHandle STATE;
+
+    static {
+        try {
+            STATE = MethodHandles.lookup().findVarHandle(VendingMachine.class, "state", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final String machineSerialId;
+    private final MachineService machineService;
+
+    private volatile long state = pack(0, INITIAL_STOCK, INITIAL_STOCK);
+    private volatile PriceTable prices = new PriceTable(INITIAL_CHOCO_BAR_PRICE, INITIAL_JUICE_BOX_PRICE, 0);
+    private final Object priceChanges = new Object();
+
+    public void choose(int selectedNumber) {
+        if (!stockAvailable()) {
+            display(DisplayEvent.NO_ITEMS_LEFT);
+            returnCoins();
+            return;
+        }
+
+        var selectedAction = VendingMachineAction.of(selectedNumber);
+        selectedAction.performOn(this);
+    }
+
+    void sellChocoBar() {
+        sellItem(CHOCO_BAR, CHOCO_BAR_SHIFT, "choco bar");
+    }
+
+    void sellJuiceBox() {
+        sellItem(JUICE_BOX, JUICE_BOX_SHIFT, "juice box");
+    }
+
+    private void sellItem(int product, int stockShift, String itemName) {
+        while (true) {
+            long current = state;
+            var currentPrices = prices;
+            if (currentPrices.getGeneration() != generationOf(current)) {
+                // a price change is halfway through, the state gets its generation in a moment
+                Thread.onSpinWait();
+                continue;
+            }
+
+            int price = product == CHOCO_BAR ? currentPrices.getChocoBarPrice() : currentPrices.getJuiceBoxPrice();
+            int balance = balanceOf(current);
+            if (balance < price) {
+                display(DisplayEvent.NOT_ENOUGH_COINS, itemName, price, balance);
+                return;
+            }
+
+            if (stockOf(current, stockShift) == 0) {
+                display(DisplayEvent.ITEM_UNAVAILABLE, itemName, 0, 0);
+                return;
+            }
+
+            long next = current - (1L << stockShift) - price;
+            if (STATE.compareAndSet(this, current, next)) {
+                transactionListener.itemSold(product, price, balanceOf(next));
+                display(DisplayEvent.ITEM_SOLD, itemName, balanceOf(next), 0);
+                return;
+            }
+        }
+    }
+
+    public void insertCoins(int amount) {
+        if (amount < 0) {
+            throw new IllegalArgumentException(String.format("Can't insert %d coin(s)", amount));
+        }
+
+        long current;
+        long next;
+        do {
+            current = state;
+            long balance = (long) balanceOf(current) + amount;
+            if (balance > BALANCE_MASK) {
+                throw new IllegalArgumentException(String.format(
+                        "Can't insert %d coin(s), balance would exceed %d", amount, BALANCE_MASK));
+            }
+            next = (current & ~BALANCE_MASK) | balance;
+        } while (!STATE.compareAndSet(this, current, next));
+
+        transactionListener.coinsInserted(amount, balanceOf(next));
+        display(DisplayEvent.COINS_INSERTED, null, amount, balanceOf(next));
+    }
+
+    public void returnCoins() {
+        long current = (long) STATE.getAndBitwiseAnd(this, ~BALANCE_MASK);
+        transactionListener.coinsReturned(balanceOf(current));
+        display(DisplayEvent.COINS_RETURNED, null, balanceOf(current), 0);
+    }
+
+    /**
+     * Adds items to the stock, for the operator refilling the machine while it keeps selling.
+     */
+    public void restock(int chocoBars, int juiceBoxes) {
+        if (chocoBars < 0 || juiceBoxes < 0) {
+            throw new IllegalArgumentException(String.format("Can't restock %d and %d items", chocoBars, juiceBoxes));
+        }
+
+        long current;
+        long next;
+        do {
+            current = state;
+            int chocoBarStock = stockOf(current, CHOCO_BAR_SHIFT) + chocoBars;
+            int juiceBoxStock = stockOf(current, JUICE_BOX_SHIFT) + juiceBoxes;
+            if (chocoBarStock > STOCK_MASK || juiceBoxStock > STOCK_MASK) {
+                throw new IllegalArgumentException(String.format(
+                        "Stock can't exceed %d items per product", STOCK_MASK));
+            }
+            next = (current & (BALANCE_MASK | GENERATION_BITS))
+                    | ((long) chocoBarStock << CHOCO_BAR_SHIFT) | ((long) juiceBoxStock << JUICE_BOX_SHIFT);
+        } while (!STATE.compareAndSet(this, current, next));
+    }
+
+    /**
+     * Publishes new prices. Sales already past their compare-and-set keep the old price, any later one is charged the
+     * new price.
+     */
+    public void changePrices(int chocoBarPrice, int juiceBoxPrice) {
+        synchronized (priceChanges) {
+            int generation = (prices.getGeneration() + 1) & GENERATION_MASK;
+            prices = new PriceTable(chocoBarPrice, juiceBoxPrice, generation);
+
+            long current;
+            long next;
+            do {
+                current = state;
+                next = (current & ~GENERATION_BITS) | ((long) generation << GENERATION_SHIFT);
+            } while (!STATE.compareAndSet(this, current, next));
+        }
+    }
+
+    public PriceTable getPrices() {
+        return prices;
+    }
+
+    void reportIssue() {
+        machineService.reportIssue(machineSerialId);
+    }
+
+    public boolean isChocoBarAvailable() {
+        return getChocoBarStock() > 0;
+    }
+
+    public boolean isJuiceBoxAvailable() {
+        return getJuiceBoxStock() > 0;
+    }
+
+    void display(DisplayEvent event) {
+        display(event, null, 0, 0);
+    }
+
+    private void display(DisplayEvent event, String item, int first, int second) {
+        machineDisplay.display(event, item, first, second);
+    }
+
+    private boolean stockAvailable() {
+        return (state >>> CHOCO_BAR_SHIFT) != 0;
+    }
+
+    public int getChocoBarStock() {
+        return stockOf(state, CHOCO_BAR_SHIFT);
+    }
+
+    public int getJuiceBoxStock() {
+        return stockOf(state, JUICE_BOX_SHIFT);
+    }
+
+    public int getCoinBalance() {
+        return balanceOf(state);
+    }
+
+    public String getMachineSerialId() {
+        return machineSerialId;
+    }
+
+    private static long pack(int coinBalance, int chocoBarStock, int juiceBoxStock) {
+        return ((long) juiceBoxStock << JUICE_BOX_SHIFT) | ((long) chocoBarStock << CHOCO_BAR_SHIFT) | coinBalance;
+    }
+
+    private static int balanceOf(long state) {
+        return (int) (state & BALANCE_MASK);
+    }
+
+    private static int stockOf(long state, int shift) {
+        return (int) (state >>> shift) & STOCK_MASK;
+    }
+
+    private static int generationOf(long state) {
+        return (int) (state >>> GENERATION_SHIFT) & GENERATION_MASK;
+    }
+
+    private final MachineDisplay machineDisplay;
+    private final TransactionListener transactionListener;
+
+    public VendingMachine() {
+        this(new MachineDisplay());
+    }
+
+    public VendingMachine(MachineDisplay machineDisplay) {
+        this(machineDisplay, TransactionListener.NONE);
+    }
+
+    public VendingMachine(MachineDisplay machineDisplay, TransactionListener transactionListener) {
+        this("xyz-109", machineDisplay, MachineService.defaultService(), transactionListener);
+    }
+
+    /**
+     * @param transactionListener called from whichever thread made the change, so it has to be thread-safe
+     */
+    public VendingMachine(String machineSerialId, MachineDisplay machineDisplay, MachineService machineService,
+                          TransactionListener transactionListener) {
+        this.machineSerialId = machineSerialId;
+        this.machineDisplay = machineDisplay;
+        this.machineService = machineService;
+        this.transactionListener = transactionListener;
+    }
+}
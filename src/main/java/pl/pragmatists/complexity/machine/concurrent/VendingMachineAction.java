@@ -0,0 +1,33 @@
+package pl.pragmatists.complexity.machine.concurrent;
+
+import pl.pragmatists.complexity.machine.common.ChoiceTable;
+import pl.pragmatists.complexity.machine.common.DisplayEvent;
+
+import java.util.function.Consumer;
+
+public enum VendingMachineAction {
+    SELL_CHOCO_BAR(1, VendingMachine::sellChocoBar),
+    SELL_JUICE_BOX(2, VendingMachine::sellJuiceBox),
+    RETURN_COINS(0, VendingMachine::returnCoins),
+    CALL_SERVICE(100, VendingMachine::reportIssue),
+    UNAVAILABLE(Integer.MIN_VALUE, vm -> vm.display(DisplayEvent.CHOICE_UNAVAILABLE));
+
+    private static final ChoiceTable<VendingMachineAction> CHOICES =
+            ChoiceTable.of(values(), action -> action.choiceNumber, UNAVAILABLE);
+
+    private final int choiceNumber;
+    private final Consumer<VendingMachine> action;
+
+    VendingMachineAction(int choiceNumber, Consumer<VendingMachine> action) {
+        this.choiceNumber = choiceNumber;
+        this.action = action;
+    }
+
+    public void performOn(VendingMachine vendingMachine) {
+        action.accept(vendingMachine);
+    }
+
+    public static VendingMachineAction of(int code) {
+        return CHOICES.get(code);
+    }
+}
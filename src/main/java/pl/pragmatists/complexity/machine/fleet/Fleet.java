@@ -0,0 +1,173 @@
+package pl.pragmatists.complexity.machine.fleet;
+
+import pl.pragmatists.complexity.machine.common.DisplayEvent;
+import pl.pragmatists.complexity.machine.common.MachineDisplay;
+import pl.pragmatists.complexity.machine.v7.MachineService;
+
+import java.util.Arrays;
+
+/**
+ * Holds the state of many v7 machines in one place. Instead of an object graph per machine, every machine is a row in
+ * a few primitive arrays (balance, stock per product), found by its serial id. Calls behave like the ones on
+ * {@code v7.VendingMachine}.
+ * <p>
+ * Not thread-safe: a fleet is meant to be driven by a single thread.
+ */
+public class Fleet {
+    private static final int CHOCO_BAR_PRICE = 5;
+    private static final int JUICE_BOX_PRICE = 7;
+    private static final int INITIAL_STOCK = 5;
+
+    private final MachineDisplay machineDisplay;
+    private final MachineService machineService;
+    private final SerialIndex index;
+
+    private String[] machineSerialIds;
+    private int[] coinBalance;
+    private int[] chocoBarStock;
+    private int[] juiceBoxStock;
+    private int size;
+
+    public Fleet(int expectedSize) {
+        this(expectedSize, new MachineDisplay(), MachineService.defaultService());
+    }
+
+    public Fleet(int expectedSize, MachineDisplay machineDisplay, MachineService machineService) {
+        int capacity = Math.max(1, expectedSize);
+        this.machineDisplay = machineDisplay;
+        this.machineService = machineService;
+        this.index = new SerialIndex(capacity);
+        this.machineSerialIds = new String[capacity];
+        this.coinBalance = new int[capacity];
+        this.chocoBarStock = new int[capacity];
+        this.juiceBoxStock = new int[capacity];
+    }
+
+    public void register(String machineSerialId) {
+        if (index.get(machineSerialId) != SerialIndex.MISSING) {
+            throw new IllegalArgumentException(String.format("Machine %s already registered", machineSerialId));
+        }
+        if (size == coinBalance.length) {
+            grow();
+        }
+        machineSerialIds[size] = machineSerialId;
+        chocoBarStock[size] = INITIAL_STOCK;
+        juiceBoxStock[size] = INITIAL_STOCK;
+        index.put(machineSerialId, size);
+        size++;
+    }
+
+    public void choose(String machineSerialId, int selectedNumber) {
+        int row = rowOf(machineSerialId);
+        if (!stockAvailable(row)) {
+            display(DisplayEvent.NO_ITEMS_LEFT);
+            returnCoins(row);
+            return;
+        }
+
+        FleetAction.of(selectedNumber).performOn(this, row);
+    }
+
+    public void insertCoins(String machineSerialId, int amount) {
+        int row = rowOf(machineSerialId);
+        coinBalance[row] += amount;
+        display(DisplayEvent.COINS_INSERTED, null, amount, coinBalance[row]);
+    }
+
+    public void returnCoins(String machineSerialId) {
+        returnCoins(rowOf(machineSerialId));
+    }
+
+    /**
+     * Adds items to a machine's stock.
+     */
+    public void restock(String machineSerialId, int chocoBars, int juiceBoxes) {
+        if (chocoBars < 0 || juiceBoxes < 0) {
+            throw new IllegalArgumentException(String.format("Can't restock %d and %d items", chocoBars, juiceBoxes));
+        }
+        int row = rowOf(machineSerialId);
+        chocoBarStock[row] += chocoBars;
+        juiceBoxStock[row] += juiceBoxes;
+    }
+
+    void sellChocoBar(int row) {
+        if (sellItem(row, CHOCO_BAR_PRICE, chocoBarStock[row], "choco bar")) {
+            chocoBarStock[row]--;
+        }
+    }
+
+    void sellJuiceBox(int row) {
+        if (sellItem(row, JUICE_BOX_PRICE, juiceBoxStock[row], "juice box")) {
+            juiceBoxStock[row]--;
+        }
+    }
+
+    private boolean sellItem(int row, int price, int stock, String itemName) {
+        if (coinBalance[row] < price) {
+            display(DisplayEvent.NOT_ENOUGH_COINS, itemName, price, coinBalance[row]);
+            return false;
+        }
+
+        if (stock == 0) {
+            display(DisplayEvent.ITEM_UNAVAILABLE, itemName, 0, 0);
+            return false;
+        }
+
+        coinBalance[row] -= price;
+        display(DisplayEvent.ITEM_SOLD, itemName, coinBalance[row], 0);
+        return true;
+    }
+
+    void returnCoins(int row) {
+        display(DisplayEvent.COINS_RETURNED, null, coinBalance[row], 0);
+        coinBalance[row] = 0;
+    }
+
+    void reportIssue(int row) {
+        machineService.reportIssue(machineSerialIds[row]);
+    }
+
+    void display(DisplayEvent event) {
+        display(event, null, 0, 0);
+    }
+
+    private void display(DisplayEvent event, String item, int first, int second) {
+        machineDisplay.display(event, item, first, second);
+    }
+
+    private boolean stockAvailable(int row) {
+        return chocoBarStock[row] > 0 || juiceBoxStock[row] > 0;
+    }
+
+    public int getChocoBarStock(String machineSerialId) {
+        return chocoBarStock[rowOf(machineSerialId)];
+    }
+
+    public int getJuiceBoxStock(String machineSerialId) {
+        return juiceBoxStock[rowOf(machineSerialId)];
+    }
+
+    public int getCoinBalance(String machineSerialId) {
+        return coinBalance[rowOf(machineSerialId)];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int rowOf(String machineSerialId) {
+        int row = index.get(machineSerialId);
+        if (row == SerialIndex.MISSING) {
+            throw new IllegalArgumentException(String.format("Unknown machine %s", machineSerialId));
+        }
+        return row;
+    }
+
+    private void grow() {
+        int capacity = coinBalance.length * 2;
+        machineSerialIds = Arrays.copyOf(machineSerialIds, capacity);
+        coinBalance = Arrays.copyOf(coinBalance, capacity);
+        chocoBarStock = Arrays.copyOf(chocoBarStock, capacity);
+        juiceBoxStock = Arrays.copyOf(juiceBoxStock, capacity);
+    }
+}
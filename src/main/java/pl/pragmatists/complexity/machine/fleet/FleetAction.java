@@ -0,0 +1,36 @@
+package pl.pragmatists.complexity.machine.fleet;
+
+import pl.pragmatists.complexity.machine.common.ChoiceTable;
+import pl.pragmatists.complexity.machine.common.DisplayEvent;
+
+public enum FleetAction {
+    SELL_CHOCO_BAR(1, Fleet::sellChocoBar),
+    SELL_JUICE_BOX(2, Fleet::sellJuiceBox),
+    RETURN_COINS(0, Fleet::returnCoins),
+    CALL_SERVICE(100, Fleet::reportIssue),
+    UNAVAILABLE(Integer.MIN_VALUE, (fleet, row) -> fleet.display(DisplayEvent.CHOICE_UNAVAILABLE));
+
+    private static final ChoiceTable<FleetAction> CHOICES =
+            ChoiceTable.of(values(), action -> action.choiceNumber, UNAVAILABLE);
+
+    private final int choiceNumber;
+    private final RowAction action;
+
+    FleetAction(int choiceNumber, RowAction action) {
+        this.choiceNumber = choiceNumber;
+        this.action = action;
+    }
+
+    public void performOn(Fleet fleet, int row) {
+        action.perform(fleet, row);
+    }
+
+    public static FleetAction of(int code) {
+        return CHOICES.get(code);
+    }
+
+    @FunctionalInterface
+    private interface RowAction {
+        void perform(Fleet fleet, int row);
+    }
+}
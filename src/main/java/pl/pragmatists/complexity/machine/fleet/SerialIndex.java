@@ -0,0 +1,64 @@
+package pl.pragmatists.complexity.machine.fleet;
+
+/**
+ * Open-addressing map from machine serial id to its row in the fleet tables. Keeps keys and rows in two flat arrays,
+ * so there is no entry object (or boxed {@code Integer}) per machine.
+ */
+class SerialIndex {
+    static final int MISSING = -1;
+
+    private String[] serials;
+    private int[] rows;
+    private int size;
+
+    SerialIndex(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(2, expectedSize * 2) - 1) << 1;
+        serials = new String[capacity];
+        rows = new int[capacity];
+    }
+
+    int get(String serial) {
+        int mask = serials.length - 1;
+        for (int slot = slotOf(serial, mask); serials[slot] != null; slot = (slot + 1) & mask) {
+            if (serials[slot].equals(serial)) {
+                return rows[slot];
+            }
+        }
+        return MISSING;
+    }
+
+    void put(String serial, int row) {
+        if ((size + 1) * 2 > serials.length) {
+            grow();
+        }
+        insert(serial, row);
+        size++;
+    }
+
+    private void insert(String serial, int row) {
+        int mask = serials.length - 1;
+        int slot = slotOf(serial, mask);
+        while (serials[slot] != null) {
+            slot = (slot + 1) & mask;
+        }
+        serials[slot] = serial;
+        rows[slot] = row;
+    }
+
+    private void grow() {
+        var oldSerials = serials;
+        var oldRows = rows;
+        serials = new String[oldSerials.length * 2];
+        rows = new int[oldRows.length * 2];
+        for (int i = 0; i < oldSerials.length; i++) {
+            if (oldSerials[i] != null) {
+                insert(oldSerials[i], oldRows[i]);
+            }
+        }
+    }
+
+    private static int slotOf(String serial, int mask) {
+        int hash = serial.hashCode() * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
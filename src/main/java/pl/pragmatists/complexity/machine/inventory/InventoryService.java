@@ -0,0 +1,177 @@
+package pl.pragmatists.complexity.machine.inventory;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Central stock of a fleet, one counter per (machine, product) pair. Machines are numbered from 0, products from 1 as
+ * in {@code journal.MachineState}.
+ * <p>
+ * Machines are split into shards of consecutive numbers; each shard keeps its counters in a primitive array guarded by
+ * a lock of its own, so sales at machines of different shards don't contend. Operations spanning a range of machines
+ * ({@link #restock(int, int, int, int)}, {@link #snapshot(int, int)}) take the locks of all shards involved, always in
+ * ascending order, and so see or make a change of the whole range at once.
+ */
+public class InventoryService {
+    private final int machines;
+    private final int products;
+    private final int machinesPerShard;
+    private final Shard[] shards;
+
+    public InventoryService(int machines, int products, int shards) {
+        if (machines < 1 || products < 1 || shards < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "Machines, products and shards must be positive, were %d, %d and %d", machines, products, shards));
+        }
+        this.machines = machines;
+        this.products = products;
+        this.machinesPerShard = (machines + shards - 1) / shards;
+        this.shards = new Shard[(machines + machinesPerShard - 1) / machinesPerShard];
+        for (int i = 0; i < this.shards.length; i++) {
+            int shardMachines = Math.min(machinesPerShard, machines - i * machinesPerShard);
+            this.shards[i] = new Shard(shardMachines * products);
+        }
+    }
+
+    /**
+     * Takes one item of {@code product} out of the machine's stock, unless it has run out.
+     *
+     * @return whether there was an item to sell
+     */
+    public boolean trySell(int machine, int product) {
+        var shard = shardOf(machine);
+        int slot = slotOf(machine, product);
+        shard.lock.lock();
+        try {
+            if (shard.stock[slot] == 0) {
+                return false;
+            }
+            shard.stock[slot]--;
+            return true;
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    public void restock(int machine, int product, int quantity) {
+        restock(machine, machine + 1, product, quantity);
+    }
+
+    /**
+     * Adds {@code quantity} items of {@code product} to every machine from {@code fromMachine} (inclusive) to
+     * {@code toMachine} (exclusive), all at once. If any of them would overflow, none is restocked.
+     */
+    public void restock(int fromMachine, int toMachine, int product, int quantity) {
+        checkRange(fromMachine, toMachine);
+        checkProduct(product);
+        if (quantity < 0) {
+            throw new IllegalArgumentException(String.format("Can't restock %d items", quantity));
+        }
+        int firstShard = fromMachine / machinesPerShard;
+        int lastShard = (toMachine - 1) / machinesPerShard;
+        lockShards(firstShard, lastShard);
+        try {
+            for (int machine = fromMachine; machine < toMachine; machine++) {
+                Math.addExact(shardOf(machine).stock[slotOf(machine, product)], quantity);
+            }
+            for (int machine = fromMachine; machine < toMachine; machine++) {
+                shardOf(machine).stock[slotOf(machine, product)] += quantity;
+            }
+        } finally {
+            unlockShards(firstShard, lastShard);
+        }
+    }
+
+    public int getStock(int machine, int product) {
+        var shard = shardOf(machine);
+        int slot = slotOf(machine, product);
+        shard.lock.lock();
+        try {
+            return shard.stock[slot];
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    /**
+     * Stock of machines from {@code fromMachine} (inclusive) to {@code toMachine} (exclusive) as of a single moment.
+     */
+    public InventorySnapshot snapshot(int fromMachine, int toMachine) {
+        checkRange(fromMachine, toMachine);
+        int[] stock = new int[(toMachine - fromMachine) * products];
+        int firstShard = fromMachine / machinesPerShard;
+        int lastShard = (toMachine - 1) / machinesPerShard;
+        lockShards(firstShard, lastShard);
+        try {
+            int copied = 0;
+            for (int shard = firstShard; shard <= lastShard; shard++) {
+                int shardStart = shard * machinesPerShard;
+                int from = Math.max(fromMachine, shardStart) - shardStart;
+                int to = Math.min(toMachine, shardStart + machinesPerShard) - shardStart;
+                int length = (to - from) * products;
+                System.arraycopy(shards[shard].stock, from * products, stock, copied, length);
+                copied += length;
+            }
+        } finally {
+            unlockShards(firstShard, lastShard);
+        }
+        return new InventorySnapshot(fromMachine, toMachine, products, stock);
+    }
+
+    public int getMachines() {
+        return machines;
+    }
+
+    public int getProducts() {
+        return products;
+    }
+
+    public int getShards() {
+        return shards.length;
+    }
+
+    private Shard shardOf(int machine) {
+        if (machine < 0 || machine >= machines) {
+            throw new IllegalArgumentException(String.format("No machine %d, there are %d", machine, machines));
+        }
+        return shards[machine / machinesPerShard];
+    }
+
+    private int slotOf(int machine, int product) {
+        checkProduct(product);
+        return (machine % machinesPerShard) * products + product - 1;
+    }
+
+    private void checkProduct(int product) {
+        if (product < 1 || product > products) {
+            throw new IllegalArgumentException(String.format("No product %d, there are %d", product, products));
+        }
+    }
+
+    private void checkRange(int fromMachine, int toMachine) {
+        if (fromMachine < 0 || toMachine > machines || fromMachine >= toMachine) {
+            throw new IllegalArgumentException(String.format(
+                    "Invalid machine range [%d, %d), there are %d machines", fromMachine, toMachine, machines));
+        }
+    }
+
+    private void lockShards(int first, int last) {
+        for (int shard = first; shard <= last; shard++) {
+            shards[shard].lock.lock();
+        }
+    }
+
+    private void unlockShards(int first, int last) {
+        for (int shard = last; shard >= first; shard--) {
+            shards[shard].lock.unlock();
+        }
+    }
+
+    private static final class Shard {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final int[] stock;
+
+        private Shard(int slots) {
+            this.stock = new int[slots];
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package pl.pragmatists.complexity.machine.inventory;
+
+/**
+ * Stock of a range of machines, taken by {@link InventoryService#snapshot(int, int)}.
+ */
+public final class InventorySnapshot {
+    private final int fromMachine;
+    private final int toMachine;
+    private final int products;
+    private final int[] stock;
+
+    InventorySnapshot(int fromMachine, int toMachine, int products, int[] stock) {
+        this.fromMachine = fromMachine;
+        this.toMachine = toMachine;
+        this.products = products;
+        this.stock = stock;
+    }
+
+    public int getStock(int machine, int product) {
+        if (machine < fromMachine || machine >= toMachine || product < 1 || product > products) {
+            throw new IllegalArgumentException(String.format(
+                    "Machine %d, product %d is not in the snapshot", machine, product));
+        }
+        return stock[(machine - fromMachine) * products + product - 1];
+    }
+
+    /**
+     * Items of {@code product} left in all machines of the snapshot.
+     */
+    public long getTotal(int product) {
+        long total = 0;
+        for (int machine = fromMachine; machine < toMachine; machine++) {
+            total += getStock(machine, product);
+        }
+        return total;
+    }
+
+    public int getFromMachine() {
+        return fromMachine;
+    }
+
+    public int getToMachine() {
+        return toMachine;
+    }
+}
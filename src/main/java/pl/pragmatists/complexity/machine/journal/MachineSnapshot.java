@@ -0,0 +1,117 @@
+package pl.pragmatists.complexity.machine.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.zip.CRC32;
+
+/**
+ * Immutable copy of a machine's state as of a journal index: replaying the journal from {@code journalIndex} on top of
+ * it gives the current state.
+ * <p>
+ * Binary format: magic, version, journal index, balance, choco bar stock, juice box stock, serial id (length-prefixed
+ * UTF-8) and a CRC32 of everything before it.
+ */
+public final class MachineSnapshot {
+    private static final int MAGIC = 0x564D5331;
+    private static final int VERSION = 1;
+
+    private final String machineSerialId;
+    private final long journalIndex;
+    private final int coinBalance;
+    private final int chocoBarStock;
+    private final int juiceBoxStock;
+
+    public MachineSnapshot(String machineSerialId, long journalIndex, int coinBalance, int chocoBarStock, int juiceBoxStock) {
+        this.machineSerialId = machineSerialId;
+        this.journalIndex = journalIndex;
+        this.coinBalance = coinBalance;
+        this.chocoBarStock = chocoBarStock;
+        this.juiceBoxStock = juiceBoxStock;
+    }
+
+    /**
+     * Writes the snapshot next to the previous one and atomically replaces it, so a crash leaves either of them intact.
+     * Both the new file and the rename are forced to disk before this method returns.
+     */
+    public void writeTo(Path file) {
+        byte[] serial = machineSerialId.getBytes(StandardCharsets.UTF_8);
+        var buffer = ByteBuffer.allocate(30 + serial.length + 4);
+        buffer.putInt(MAGIC)
+                .putInt(VERSION)
+                .putLong(journalIndex)
+                .putInt(coinBalance)
+                .putInt(chocoBarStock)
+                .putInt(juiceBoxStock)
+                .putShort((short) serial.length)
+                .put(serial);
+        buffer.putInt((int) checksum(buffer.array(), buffer.position()));
+        buffer.flip();
+
+        var temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            try (var channel = FileChannel.open(temporary,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            try (var directory = FileChannel.open(file.toAbsolutePath().getParent(), StandardOpenOption.READ)) {
+                directory.force(true);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static Optional<MachineSnapshot> readFrom(Path file) {
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+        try {
+            byte[] bytes = Files.readAllBytes(file);
+            var buffer = ByteBuffer.wrap(bytes);
+            if (bytes.length < 34 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION
+                    || (int) checksum(bytes, bytes.length - 4) != buffer.getInt(bytes.length - 4)) {
+                throw new IllegalStateException(String.format("%s is not a valid machine snapshot", file));
+            }
+            long journalIndex = buffer.getLong();
+            int coinBalance = buffer.getInt();
+            int chocoBarStock = buffer.getInt();
+            int juiceBoxStock = buffer.getInt();
+            byte[] serial = new byte[buffer.getShort()];
+            buffer.get(serial);
+            return Optional.of(new MachineSnapshot(new String(serial, StandardCharsets.UTF_8), journalIndex,
+                    coinBalance, chocoBarStock, juiceBoxStock));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public MachineState toState() {
+        return new MachineState(coinBalance, chocoBarStock, juiceBoxStock);
+    }
+
+    public String getMachineSerialId() {
+        return machineSerialId;
+    }
+
+    public long getJournalIndex() {
+        return journalIndex;
+    }
+
+    private static long checksum(byte[] bytes, int length) {
+        var crc = new CRC32();
+        crc.update(bytes, 0, length);
+        return crc.getValue();
+    }
+}
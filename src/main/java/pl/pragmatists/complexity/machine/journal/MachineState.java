@@ -0,0 +1,47 @@
+package pl.pragmatists.complexity.machine.journal;
+
+/**
+ * Balance and stock of a two-product (v7) machine, rebuilt by replaying journal records onto it.
+ */
+public final class MachineState implements RecordVisitor {
+    public static final int CHOCO_BAR = 1;
+    public static final int JUICE_BOX = 2;
+
+    private int coinBalance;
+    private int chocoBarStock;
+    private int juiceBoxStock;
+
+    public MachineState(int coinBalance, int chocoBarStock, int juiceBoxStock) {
+        this.coinBalance = coinBalance;
+        this.chocoBarStock = chocoBarStock;
+        this.juiceBoxStock = juiceBoxStock;
+    }
+
+    public static MachineState initial() {
+        return new MachineState(0, 5, 5);
+    }
+
+    @Override
+    public void visit(long timestamp, RecordType type, int product, int amount, int balance) {
+        if (type == RecordType.ITEM_SOLD) {
+            if (product == CHOCO_BAR) {
+                chocoBarStock--;
+            } else if (product == JUICE_BOX) {
+                juiceBoxStock--;
+            }
+        }
+        coinBalance = balance;
+    }
+
+    public int getCoinBalance() {
+        return coinBalance;
+    }
+
+    public int getChocoBarStock() {
+        return chocoBarStock;
+    }
+
+    public int getJuiceBoxStock() {
+        return juiceBoxStock;
+    }
+}
@@ -0,0 +1,124 @@
+package pl.pragmatists.complexity.machine.journal;
+
+import pl.pragmatists.complexity.machine.common.TransactionListener;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Durable state of a single machine: a {@link TransactionJournal} plus periodic {@link MachineSnapshot}s kept in the
+ * same directory. On open the latest snapshot is loaded and only the journal tail after it is replayed. If the snapshot
+ * can't be read, the whole journal is replayed instead, as long as it hasn't been truncated yet.
+ * <p>
+ * The store keeps its own copy of the machine's state, updated on every transaction. Every {@code snapshotInterval}
+ * transactions the journal is committed and an immutable snapshot of that copy is handed over to a background thread,
+ * which writes it and, only once it is safely on disk, drops the journal segments it covers. The machine's thread never waits for either.
+ */
+public class MachineStore implements TransactionListener, AutoCloseable {
+    public static final String SNAPSHOT_FILE = "snapshot.bin";
+
+    private final TransactionJournal journal;
+    private final Path snapshotFile;
+    private final long snapshotInterval;
+    private final MachineState recoveredState;
+    private final MachineState current;
+    private final ExecutorService snapshotWriter;
+    private long sinceSnapshot;
+
+    private MachineStore(TransactionJournal journal, Path snapshotFile, long snapshotInterval, MachineState recoveredState) {
+        this.journal = journal;
+        this.snapshotFile = snapshotFile;
+        this.snapshotInterval = snapshotInterval;
+        this.recoveredState = recoveredState;
+        this.current = new MachineState(recoveredState.getCoinBalance(), recoveredState.getChocoBarStock(),
+                recoveredState.getJuiceBoxStock());
+        this.snapshotWriter = Executors.newSingleThreadExecutor(runnable -> {
+            var thread = new Thread(runnable, "snapshot-writer-" + journal.getMachineSerialId());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static MachineStore open(Path directory, String machineSerialId, int groupCommitSize, long snapshotInterval) {
+        if (snapshotInterval < 1) {
+            throw new IllegalArgumentException(String.format("Snapshot interval must be positive, was %d", snapshotInterval));
+        }
+        var journal = TransactionJournal.open(directory, machineSerialId, groupCommitSize);
+        var snapshotFile = directory.resolve(SNAPSHOT_FILE);
+        var snapshot = readSnapshot(snapshotFile, journal);
+        var state = snapshot.map(MachineSnapshot::toState).orElseGet(MachineState::initial);
+        journal.replay(snapshot.map(MachineSnapshot::getJournalIndex).orElse(0L), state);
+        return new MachineStore(journal, snapshotFile, snapshotInterval, state);
+    }
+
+    private static Optional<MachineSnapshot> readSnapshot(Path snapshotFile, TransactionJournal journal) {
+        try {
+            return MachineSnapshot.readFrom(snapshotFile);
+        } catch (IllegalStateException | UncheckedIOException e) {
+            if (journal.firstIndex() > 0) {
+                throw new IllegalStateException(String.format(
+                        "%s can't be read and the journal has been truncated", snapshotFile), e);
+            }
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * State the machine should start with.
+     */
+    public MachineState getRecoveredState() {
+        return recoveredState;
+    }
+
+    public String getMachineSerialId() {
+        return journal.getMachineSerialId();
+    }
+
+    @Override
+    public void coinsInserted(int amount, int balance) {
+        journal.coinsInserted(amount, balance);
+        current.visit(0, RecordType.COINS_INSERTED, 0, amount, balance);
+        transactionRecorded();
+    }
+
+    @Override
+    public void itemSold(int product, int price, int balance) {
+        journal.itemSold(product, price, balance);
+        current.visit(0, RecordType.ITEM_SOLD, product, price, balance);
+        transactionRecorded();
+    }
+
+    @Override
+    public void coinsReturned(int amount) {
+        journal.coinsReturned(amount);
+        current.visit(0, RecordType.COINS_RETURNED, 0, amount, 0);
+        transactionRecorded();
+    }
+
+    private void transactionRecorded() {
+        if (++sinceSnapshot >= snapshotInterval) {
+            sinceSnapshot = 0;
+            journal.commit();
+            var snapshot = new MachineSnapshot(journal.getMachineSerialId(), journal.nextIndex(),
+                    current.getCoinBalance(), current.getChocoBarStock(), current.getJuiceBoxStock());
+            snapshotWriter.execute(() -> {
+                snapshot.writeTo(snapshotFile);
+                journal.truncateBefore(snapshot.getJournalIndex());
+            });
+        }
+    }
+
+    /**
+     * Waits for pending snapshots to be written and closes the journal.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        snapshotWriter.shutdown();
+        snapshotWriter.awaitTermination(1, TimeUnit.MINUTES);
+        journal.close();
+    }
+}
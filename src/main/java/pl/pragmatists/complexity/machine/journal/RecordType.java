@@ -0,0 +1,20 @@
+package pl.pragmatists.complexity.machine.journal;
+
+public enum RecordType {
+    COINS_INSERTED,
+    ITEM_SOLD,
+    COINS_RETURNED;
+
+    private static final RecordType[] BY_CODE = values();
+
+    byte code() {
+        return (byte) ordinal();
+    }
+
+    static RecordType of(byte code) {
+        if (code < 0 || code >= BY_CODE.length) {
+            throw new IllegalStateException(String.format("Corrupted journal: unknown record type %d", code));
+        }
+        return BY_CODE[code];
+    }
+}
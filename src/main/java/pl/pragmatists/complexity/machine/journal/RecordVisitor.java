@@ -0,0 +1,10 @@
+package pl.pragmatists.complexity.machine.journal;
+
+/**
+ * Receives journal records on replay. {@code amount} is the number of coins inserted or returned, or the price of the
+ * sold product; {@code balance} is the coin balance after the change.
+ */
+@FunctionalInterface
+public interface RecordVisitor {
+    void visit(long timestamp, RecordType type, int product, int amount, int balance);
+}
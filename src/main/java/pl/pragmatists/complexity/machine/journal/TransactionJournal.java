@@ -0,0 +1,312 @@
+package pl.pragmatists.complexity.machine.journal;
+
+import pl.pragmatists.complexity.machine.common.TransactionListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append-only binary log of a single machine's transactions, kept in a directory and written through memory-mapped
+ * files.
+ * <p>
+ * {@value #META_FILE} holds the header (magic, version, number of committed records, serial id). Records are
+ * {@value #RECORD_SIZE} bytes wide (timestamp, type, product, amount, balance after the change and a checksum) and
+ * are stored in segment files of {@value #RECORDS_PER_SEGMENT} records each, named after the segment number. Records
+ * are group committed: they are forced to disk, and the committed count is advanced, only once {@code groupCommitSize}
+ * of them have piled up (or on {@link #commit()} / {@link #close()}). Records appended after the last commit still
+ * reach the page cache, so when the journal is reopened after the process died, the intact ones (matching checksum)
+ * following the committed count are recovered. Only an OS crash or power loss can take them away.
+ * <p>
+ * Old segments can be dropped with {@link #truncateBefore(long)} once a snapshot covers them. Apart from that method the
+ * journal is not thread-safe, it is meant to be written by the thread driving the machine.
+ */
+public class TransactionJournal implements TransactionListener, AutoCloseable {
+    static final String META_FILE = "journal.meta";
+    static final int RECORD_SIZE = 24;
+    static final int RECORDS_PER_SEGMENT = 1 << 16;
+    private static final int META_SIZE = 4096;
+    private static final long SEGMENT_SIZE = (long) RECORDS_PER_SEGMENT * RECORD_SIZE;
+    private static final String SEGMENT_SUFFIX = ".segment";
+
+    private static final int MAGIC = 0x564D4A31;
+    private static final int VERSION = 3;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int COUNT_OFFSET = 8;
+    private static final int SERIAL_OFFSET = 16;
+    private static final int MAX_SERIAL_LENGTH = 256;
+
+    private final Path directory;
+    private final FileChannel metaChannel;
+    private final MappedByteBuffer meta;
+    private final String machineSerialId;
+    private final int groupCommitSize;
+
+    private MappedByteBuffer segment;
+    private long segmentNumber = -1;
+    private long committed;
+    private long written;
+    private volatile long firstIndex;
+
+    private TransactionJournal(Path directory, FileChannel metaChannel, MappedByteBuffer meta, int groupCommitSize)
+            throws IOException {
+        this.directory = directory;
+        this.metaChannel = metaChannel;
+        this.meta = meta;
+        this.machineSerialId = readSerial(meta);
+        this.groupCommitSize = groupCommitSize;
+        this.committed = meta.getLong(COUNT_OFFSET);
+        this.written = committed;
+        recoverUncommitted();
+        this.firstIndex = Math.min(committed, oldestSegment() * RECORDS_PER_SEGMENT);
+    }
+
+    /**
+     * Opens the journal kept in {@code directory}, creating it for {@code machineSerialId} if there is none yet. Intact
+     * records that were appended but not committed before the journal was last closed are recovered and committed.
+     */
+    public static TransactionJournal open(Path directory, String machineSerialId, int groupCommitSize) {
+        if (groupCommitSize < 1) {
+            throw new IllegalArgumentException(String.format("Group commit size must be positive, was %d", groupCommitSize));
+        }
+        try {
+            Files.createDirectories(directory);
+            var metaFile = directory.resolve(META_FILE);
+            var metaChannel = FileChannel.open(metaFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            boolean created = metaChannel.size() == 0;
+            var meta = metaChannel.map(FileChannel.MapMode.READ_WRITE, 0, META_SIZE);
+            if (created) {
+                writeMeta(meta, machineSerialId);
+            } else {
+                verifyMeta(meta, metaFile);
+            }
+            return new TransactionJournal(directory, metaChannel, meta, groupCommitSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void coinsInserted(int amount, int balance) {
+        append(RecordType.COINS_INSERTED, 0, amount, balance);
+    }
+
+    @Override
+    public void itemSold(int product, int price, int balance) {
+        append(RecordType.ITEM_SOLD, product, price, balance);
+    }
+
+    @Override
+    public void coinsReturned(int amount) {
+        append(RecordType.COINS_RETURNED, 0, amount, 0);
+    }
+
+    private void append(RecordType type, int product, int amount, int balance) {
+        int offset = positionInSegment(written);
+        segment.putLong(offset, System.currentTimeMillis());
+        segment.put(offset + 8, type.code());
+        segment.putShort(offset + 10, (short) product);
+        segment.putInt(offset + 12, amount);
+        segment.putInt(offset + 16, balance);
+        segment.putInt(offset + 20, checksum(segment, offset, written));
+        written++;
+        if (written - committed >= groupCommitSize) {
+            commit();
+        }
+    }
+
+    /**
+     * Makes every record appended so far durable.
+     */
+    public void commit() {
+        if (written == committed) {
+            return;
+        }
+        segment.force();
+        meta.putLong(COUNT_OFFSET, written);
+        meta.force();
+        committed = written;
+    }
+
+    /**
+     * Passes every committed record still kept in the journal, oldest first, to the visitor.
+     */
+    public void replay(RecordVisitor visitor) {
+        replay(firstIndex(), visitor);
+    }
+
+    /**
+     * Passes committed records starting with the one at {@code fromIndex} to the visitor.
+     */
+    public void replay(long fromIndex, RecordVisitor visitor) {
+        if (fromIndex < firstIndex()) {
+            throw new IllegalArgumentException(String.format(
+                    "Record %d has been truncated, journal starts at %d", fromIndex, firstIndex()));
+        }
+        MappedByteBuffer replayed = null;
+        long replayedSegment = -1;
+        for (long record = fromIndex; record < committed; record++) {
+            long recordSegment = record / RECORDS_PER_SEGMENT;
+            if (recordSegment != replayedSegment) {
+                replayed = mapSegment(recordSegment, FileChannel.MapMode.READ_ONLY);
+                replayedSegment = recordSegment;
+            }
+            int offset = (int) (record % RECORDS_PER_SEGMENT) * RECORD_SIZE;
+            visitor.visit(replayed.getLong(offset),
+                    RecordType.of(replayed.get(offset + 8)),
+                    replayed.getShort(offset + 10),
+                    replayed.getInt(offset + 12),
+                    replayed.getInt(offset + 16));
+        }
+    }
+
+    /**
+     * Rebuilds the state of a machine that started out as {@link MachineState#initial()}. Only possible as long as the
+     * journal hasn't been truncated.
+     */
+    public MachineState recoverState() {
+        var state = MachineState.initial();
+        replay(0, state);
+        return state;
+    }
+
+    /**
+     * Deletes segments holding only records older than {@code index}. Safe to call from another thread than the one
+     * appending, e.g. once a snapshot covering those records has been written.
+     */
+    public void truncateBefore(long index) {
+        long keptSegment = index / RECORDS_PER_SEGMENT;
+        try {
+            for (long oldest = firstIndex / RECORDS_PER_SEGMENT; oldest < keptSegment; oldest++) {
+                firstIndex = (oldest + 1) * RECORDS_PER_SEGMENT;
+                Files.deleteIfExists(segmentFile(oldest));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public String getMachineSerialId() {
+        return machineSerialId;
+    }
+
+    /**
+     * Index of the oldest record kept in the journal.
+     */
+    public long firstIndex() {
+        return firstIndex;
+    }
+
+    /**
+     * Index the next appended record will get, i.e. the number of records ever appended.
+     */
+    public long nextIndex() {
+        return written;
+    }
+
+    @Override
+    public void close() {
+        commit();
+        try {
+            metaChannel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void recoverUncommitted() {
+        while (isIntact(written)) {
+            written++;
+        }
+        commit();
+    }
+
+    private boolean isIntact(long record) {
+        int offset = positionInSegment(record);
+        return segment.getLong(offset) != 0 && segment.getInt(offset + 20) == checksum(segment, offset, record);
+    }
+
+    /**
+     * Mixes the record's index in, so that a stale record can't pass for the one expected at that position.
+     */
+    private static int checksum(MappedByteBuffer segment, int offset, long record) {
+        long hash = mix(record ^ segment.getLong(offset));
+        hash = mix(hash ^ segment.getLong(offset + 8));
+        hash = mix(hash ^ segment.getInt(offset + 16));
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xFF51AFD7ED558CCDL;
+        value = (value ^ (value >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return value ^ (value >>> 33);
+    }
+
+    private int positionInSegment(long record) {
+        long recordSegment = record / RECORDS_PER_SEGMENT;
+        if (recordSegment != segmentNumber) {
+            if (segment != null) {
+                segment.force();
+            }
+            segment = mapSegment(recordSegment, FileChannel.MapMode.READ_WRITE);
+            segmentNumber = recordSegment;
+        }
+        return (int) (record % RECORDS_PER_SEGMENT) * RECORD_SIZE;
+    }
+
+    private MappedByteBuffer mapSegment(long number, FileChannel.MapMode mode) {
+        try (var channel = FileChannel.open(segmentFile(number),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(mode, 0, SEGMENT_SIZE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path segmentFile(long number) {
+        return directory.resolve(String.format("%012d%s", number, SEGMENT_SUFFIX));
+    }
+
+    private long oldestSegment() throws IOException {
+        long oldest = Long.MAX_VALUE;
+        try (DirectoryStream<Path> segments = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path segmentFile : segments) {
+                var name = segmentFile.getFileName().toString();
+                oldest = Math.min(oldest, Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())));
+            }
+        }
+        return oldest == Long.MAX_VALUE ? 0 : oldest;
+    }
+
+    private static void writeMeta(MappedByteBuffer meta, String machineSerialId) {
+        byte[] serial = machineSerialId.getBytes(StandardCharsets.UTF_8);
+        if (serial.length > MAX_SERIAL_LENGTH) {
+            throw new IllegalArgumentException(String.format("Serial id %s is too long", machineSerialId));
+        }
+        meta.putInt(MAGIC_OFFSET, MAGIC);
+        meta.putInt(VERSION_OFFSET, VERSION);
+        meta.putLong(COUNT_OFFSET, 0);
+        meta.putShort(SERIAL_OFFSET, (short) serial.length);
+        meta.duplicate().position(SERIAL_OFFSET + 2).put(serial);
+        meta.force();
+    }
+
+    private static void verifyMeta(MappedByteBuffer meta, Path file) {
+        if (meta.getInt(MAGIC_OFFSET) != MAGIC || meta.getInt(VERSION_OFFSET) != VERSION) {
+            throw new IllegalStateException(String.format("%s is not a transaction journal", file));
+        }
+    }
+
+    private static String readSerial(MappedByteBuffer meta) {
+        byte[] serial = new byte[meta.getShort(SERIAL_OFFSET)];
+        meta.duplicate().position(SERIAL_OFFSET + 2).get(serial);
+        return new String(serial, StandardCharsets.UTF_8);
+    }
+}
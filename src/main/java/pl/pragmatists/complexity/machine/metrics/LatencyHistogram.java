@@ -0,0 +1,105 @@
+package pl.pragmatists.complexity.machine.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Log-linear histogram of non-negative values, in the manner of HdrHistogram: values below {@value #SUB_BUCKETS} are
+ * counted exactly, above that every power of two is split into {@value #SUB_BUCKETS} equal buckets, so a recorded value
+ * is off by less than 1/{@value #SUB_BUCKETS} (about 3%). Values beyond {@value #MAX_MAGNITUDE} bits (about 36 minutes
+ * in nanoseconds) land in the last bucket.
+ * <p>
+ * Recording is a single atomic add and safe from any number of threads. Like a {@link java.util.concurrent.atomic.LongAdder},
+ * the counts are striped: each thread adds to one of up to {@value #MAX_STRIPES} copies of the buckets, picked by its
+ * id, and a snapshot sums them up. Machines sharing a histogram then don't keep bouncing the same cache line between
+ * cores, at the price of about 10 KB per stripe.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_MAGNITUDE = 41;
+    private static final int BUCKETS = SUB_BUCKETS + (MAX_MAGNITUDE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private static final int MAX_STRIPES = 8;
+    private static final int STRIPES = Math.min(MAX_STRIPES,
+            Integer.highestOneBit(2 * Runtime.getRuntime().availableProcessors() - 1));
+
+    private final AtomicLongArray counts = new AtomicLongArray(STRIPES * BUCKETS);
+
+    public void record(long value) {
+        int stripe = (int) Thread.currentThread().getId() & (STRIPES - 1);
+        counts.getAndIncrement(stripe * BUCKETS + bucketOf(value));
+    }
+
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        for (int i = 0; i < counts.length(); i++) {
+            copy[i % BUCKETS] += counts.get(i);
+        }
+        return new Snapshot(copy);
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) Math.max(value, 0);
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        if (magnitude > MAX_MAGNITUDE) {
+            return BUCKETS - 1;
+        }
+        int shift = magnitude - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+        return SUB_BUCKETS + shift * SUB_BUCKETS + subBucket;
+    }
+
+    static long highestValueIn(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+        long lowest = (long) (SUB_BUCKETS + (bucket - SUB_BUCKETS) % SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    /**
+     * Counts at the time the snapshot was taken.
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long totalCount;
+
+        private Snapshot(long[] counts) {
+            this.counts = counts;
+            long total = 0;
+            for (long count : counts) {
+                total += count;
+            }
+            this.totalCount = total;
+        }
+
+        public long getTotalCount() {
+            return totalCount;
+        }
+
+        /**
+         * Upper bound of the bucket holding the value at {@code percentile} (0-100), 0 if nothing was recorded.
+         */
+        public long valueAtPercentile(double percentile) {
+            if (totalCount == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100 * totalCount));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return highestValueIn(i);
+                }
+            }
+            return highestValueIn(counts.length - 1);
+        }
+
+        public long getMaxValue() {
+            return valueAtPercentile(100);
+        }
+    }
+}
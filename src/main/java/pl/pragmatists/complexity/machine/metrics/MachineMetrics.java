@@ -0,0 +1,54 @@
+package pl.pragmatists.complexity.machine.metrics;
+
+/**
+ * Instrumentation points of a machine's hot path. {@link #NONE} records nothing and doesn't even read the clock, so
+ * a machine without metrics pays for little more than the calls. Products are identified by the number they are
+ * chosen with.
+ */
+public interface MachineMetrics {
+    MachineMetrics NONE = new MachineMetrics() {
+    };
+
+    /**
+     * Called when a choice is made; whatever is returned is passed back to {@link #chooseFinished(long)}.
+     */
+    default long chooseStarted() {
+        return 0;
+    }
+
+    default void chooseFinished(long startTicket) {
+    }
+
+    default void itemSold(int product, int price) {
+    }
+
+    /**
+     * The customer couldn't afford the product.
+     */
+    default void notEnoughCoins(int product) {
+    }
+
+    /**
+     * The product ran out, while others are still available.
+     */
+    default void itemUnavailable(int product) {
+    }
+
+    /**
+     * Everything ran out.
+     */
+    default void soldOut() {
+    }
+
+    /**
+     * Nothing is sold under the chosen number.
+     */
+    default void choiceUnavailable() {
+    }
+
+    default void coinsInserted(int amount) {
+    }
+
+    default void coinsReturned(int amount) {
+    }
+}
@@ -0,0 +1,108 @@
+package pl.pragmatists.complexity.machine.metrics;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Values of {@link RecordingMachineMetrics} at one point in time. Per-product arrays are indexed by product number.
+ */
+public final class MetricsSnapshot {
+    private static final double[] EXPORTED_PERCENTILES = {50, 90, 99, 99.9, 100};
+    private static final String[] EXPORTED_QUANTILES = {"0.5", "0.9", "0.99", "0.999", "1"};
+
+    private final long[] sold;
+    private final long[] notEnoughCoins;
+    private final long[] itemUnavailable;
+    private final long soldOut;
+    private final long choiceUnavailable;
+    private final long coinsInserted;
+    private final long coinsReturned;
+    private final LatencyHistogram.Snapshot chooseLatency;
+
+    MetricsSnapshot(long[] sold, long[] notEnoughCoins, long[] itemUnavailable, long soldOut, long choiceUnavailable,
+                    long coinsInserted, long coinsReturned, LatencyHistogram.Snapshot chooseLatency) {
+        this.sold = sold;
+        this.notEnoughCoins = notEnoughCoins;
+        this.itemUnavailable = itemUnavailable;
+        this.soldOut = soldOut;
+        this.choiceUnavailable = choiceUnavailable;
+        this.coinsInserted = coinsInserted;
+        this.coinsReturned = coinsReturned;
+        this.chooseLatency = chooseLatency;
+    }
+
+    public long getSold(int product) {
+        return sold[product];
+    }
+
+    public long getNotEnoughCoins(int product) {
+        return notEnoughCoins[product];
+    }
+
+    public long getItemUnavailable(int product) {
+        return itemUnavailable[product];
+    }
+
+    public long getSoldOut() {
+        return soldOut;
+    }
+
+    public long getChoiceUnavailable() {
+        return choiceUnavailable;
+    }
+
+    public long getCoinsInserted() {
+        return coinsInserted;
+    }
+
+    public long getCoinsReturned() {
+        return coinsReturned;
+    }
+
+    /**
+     * Latency of the sampled choices, in nanoseconds.
+     */
+    public LatencyHistogram.Snapshot getChooseLatency() {
+        return chooseLatency;
+    }
+
+    /**
+     * Writes every value as a {@code name{labels} value} line, the Prometheus text format.
+     */
+    public void exportTo(Appendable out) {
+        try {
+            for (int product = 1; product < sold.length; product++) {
+                line(out, "vending_items_sold_total", "product", product, sold[product]);
+                line(out, "vending_not_enough_coins_total", "product", product, notEnoughCoins[product]);
+                line(out, "vending_item_unavailable_total", "product", product, itemUnavailable[product]);
+            }
+            line(out, "vending_sold_out_total", soldOut);
+            line(out, "vending_choice_unavailable_total", choiceUnavailable);
+            line(out, "vending_coins_inserted_total", coinsInserted);
+            line(out, "vending_coins_returned_total", coinsReturned);
+            for (int i = 0; i < EXPORTED_PERCENTILES.length; i++) {
+                line(out, "vending_choose_latency_nanos", "quantile", EXPORTED_QUANTILES[i],
+                        chooseLatency.valueAtPercentile(EXPORTED_PERCENTILES[i]));
+            }
+            line(out, "vending_choose_latency_nanos_count", chooseLatency.getTotalCount());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public String export() {
+        var out = new StringBuilder();
+        exportTo(out);
+        return out.toString();
+    }
+
+    private static void line(Appendable out, String name, long value) throws IOException {
+        out.append(name).append(' ').append(Long.toString(value)).append('\n');
+    }
+
+    private static void line(Appendable out, String name, String label, Object labelValue, long value)
+            throws IOException {
+        out.append(name).append('{').append(label).append("=\"").append(String.valueOf(labelValue)).append("\"} ")
+                .append(Long.toString(value)).append('\n');
+    }
+}
@@ -0,0 +1,121 @@
+package pl.pragmatists.complexity.machine.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics kept in {@link LongAdder}s, so machines on different threads may share one instance without contending on a
+ * single counter, plus a {@link LatencyHistogram} of the time spent in {@code choose}.
+ * <p>
+ * Latency is measured for one choice in {@code latencySampling}; reading the clock twice costs more than all the
+ * counters together.
+ */
+public class RecordingMachineMetrics implements MachineMetrics {
+    private static final int DEFAULT_PRODUCTS = 2;
+    private static final int DEFAULT_LATENCY_SAMPLING = 16;
+
+    private final int latencySampling;
+    private final LongAdder[] sold;
+    private final LongAdder[] notEnoughCoins;
+    private final LongAdder[] itemUnavailable;
+    private final LongAdder soldOut = new LongAdder();
+    private final LongAdder choiceUnavailable = new LongAdder();
+    private final LongAdder coinsInserted = new LongAdder();
+    private final LongAdder coinsReturned = new LongAdder();
+    private final LatencyHistogram chooseLatency = new LatencyHistogram();
+    private int choicesUntilSample;
+
+    public RecordingMachineMetrics() {
+        this(DEFAULT_PRODUCTS, DEFAULT_LATENCY_SAMPLING);
+    }
+
+    /**
+     * @param products         highest product number that will be recorded
+     * @param latencySampling  measure latency of every n-th choice, 1 to measure all of them
+     */
+    public RecordingMachineMetrics(int products, int latencySampling) {
+        if (products < 1 || latencySampling < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "Products and latency sampling must be positive, were %d and %d", products, latencySampling));
+        }
+        this.latencySampling = latencySampling;
+        this.sold = adders(products + 1);
+        this.notEnoughCoins = adders(products + 1);
+        this.itemUnavailable = adders(products + 1);
+    }
+
+    @Override
+    public long chooseStarted() {
+        // a racy countdown is fine, it only picks which choices get timed
+        if (--choicesUntilSample > 0) {
+            return 0;
+        }
+        choicesUntilSample = latencySampling;
+        return System.nanoTime();
+    }
+
+    @Override
+    public void chooseFinished(long startTicket) {
+        if (startTicket != 0) {
+            chooseLatency.record(System.nanoTime() - startTicket);
+        }
+    }
+
+    @Override
+    public void itemSold(int product, int price) {
+        sold[product].increment();
+    }
+
+    @Override
+    public void notEnoughCoins(int product) {
+        notEnoughCoins[product].increment();
+    }
+
+    @Override
+    public void itemUnavailable(int product) {
+        itemUnavailable[product].increment();
+    }
+
+    @Override
+    public void soldOut() {
+        soldOut.increment();
+    }
+
+    @Override
+    public void choiceUnavailable() {
+        choiceUnavailable.increment();
+    }
+
+    @Override
+    public void coinsInserted(int amount) {
+        coinsInserted.add(amount);
+    }
+
+    @Override
+    public void coinsReturned(int amount) {
+        coinsReturned.add(amount);
+    }
+
+    /**
+     * Current values. Counters are read one by one while the machines keep running, so the snapshot isn't atomic.
+     */
+    public MetricsSnapshot snapshot() {
+        return new MetricsSnapshot(sums(sold), sums(notEnoughCoins), sums(itemUnavailable),
+                soldOut.sum(), choiceUnavailable.sum(), coinsInserted.sum(), coinsReturned.sum(), chooseLatency.snapshot());
+    }
+
+    private static LongAdder[] adders(int count) {
+        var adders = new LongAdder[count];
+        for (int i = 0; i < count; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    private static long[] sums(LongAdder[] adders) {
+        long[] sums = new long[adders.length];
+        for (int i = 0; i < adders.length; i++) {
+            sums[i] = adders[i].sum();
+        }
+        return sums;
+    }
+}
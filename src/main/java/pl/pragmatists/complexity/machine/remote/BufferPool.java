@@ -0,0 +1,26 @@
+package pl.pragmatists.complexity.machine.remote;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * Direct buffers for replies, reused instead of allocated per write. Buffers hold a whole number of frames, so a frame
+ * never spans two of them. Only used from the server's selector thread.
+ */
+class BufferPool {
+    private static final int FRAMES_PER_BUFFER = 340;
+    private static final int MAX_POOLED = 1024;
+
+    private final ArrayDeque<ByteBuffer> free = new ArrayDeque<>();
+
+    ByteBuffer acquire() {
+        var buffer = free.pollFirst();
+        return buffer != null ? buffer : ByteBuffer.allocateDirect(FRAMES_PER_BUFFER * Protocol.FRAME_SIZE);
+    }
+
+    void release(ByteBuffer buffer) {
+        if (free.size() < MAX_POOLED) {
+            free.addFirst(buffer.clear());
+        }
+    }
+}
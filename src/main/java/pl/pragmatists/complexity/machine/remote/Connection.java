@@ -0,0 +1,95 @@
+package pl.pragmatists.complexity.machine.remote;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+
+/**
+ * Per-client state of {@link MachineServer}: the bytes of a request that hasn't fully arrived yet and the replies
+ * waiting to be written.
+ */
+class Connection {
+    private final SocketChannel channel;
+    private final BufferPool pool;
+    private final ByteBuffer partialRequest = ByteBuffer.allocate(Protocol.FRAME_SIZE);
+    private final ArrayDeque<ByteBuffer> outgoing = new ArrayDeque<>();
+    private ByteBuffer filling;
+    private ByteBuffer[] writeBatch = new ByteBuffer[4];
+
+    Connection(SocketChannel channel, BufferPool pool) {
+        this.channel = channel;
+        this.pool = pool;
+    }
+
+    SocketChannel getChannel() {
+        return channel;
+    }
+
+    /**
+     * Moves the start of an incomplete request in front of {@code readBuffer}, before the next read.
+     */
+    void restorePartialRequest(ByteBuffer readBuffer) {
+        partialRequest.flip();
+        readBuffer.put(partialRequest);
+        partialRequest.clear();
+    }
+
+    /**
+     * Keeps what is left in {@code readBuffer}, less than a frame, until more bytes arrive.
+     */
+    void keepPartialRequest(ByteBuffer readBuffer) {
+        partialRequest.put(readBuffer);
+    }
+
+    void reply(int requestId, byte status, int machine, int balance) {
+        if (filling == null || filling.remaining() < Protocol.FRAME_SIZE) {
+            if (filling != null) {
+                outgoing.addLast(filling.flip());
+            }
+            filling = pool.acquire();
+        }
+        Protocol.putReply(filling, requestId, status, machine, balance);
+    }
+
+    /**
+     * Writes as many pending replies as the socket takes, in one gathering write.
+     *
+     * @return whether everything has been written
+     */
+    boolean flush() throws IOException {
+        if (filling != null) {
+            outgoing.addLast(filling.flip());
+            filling = null;
+        }
+        if (outgoing.isEmpty()) {
+            return true;
+        }
+        if (writeBatch.length < outgoing.size()) {
+            writeBatch = new ByteBuffer[Integer.highestOneBit(outgoing.size()) << 1];
+        }
+        int count = 0;
+        for (ByteBuffer buffer : outgoing) {
+            writeBatch[count++] = buffer;
+        }
+        channel.write(writeBatch, 0, count);
+        while (!outgoing.isEmpty() && !outgoing.peekFirst().hasRemaining()) {
+            pool.release(outgoing.pollFirst());
+        }
+        return outgoing.isEmpty();
+    }
+
+    void close() {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // nothing left to do with a connection that fails to close
+        }
+        outgoing.forEach(pool::release);
+        outgoing.clear();
+        if (filling != null) {
+            pool.release(filling);
+            filling = null;
+        }
+    }
+}
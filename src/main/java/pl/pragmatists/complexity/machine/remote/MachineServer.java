@@ -0,0 +1,220 @@
+package pl.pragmatists.complexity.machine.remote;
+
+import pl.pragmatists.complexity.machine.common.Machine;
+import pl.pragmatists.complexity.machine.common.SilentMachineDisplay;
+import pl.pragmatists.complexity.machine.v7.VendingMachine;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lets remote clients (kiosk controllers) drive machines over TCP, speaking the fixed-width binary {@link Protocol}.
+ * <p>
+ * A single selector thread serves every connection and is the only thread calling the machines, so any {@link
+ * Machine} will do. Requests are read into one shared buffer and handled as soon as a whole frame is there; the replies
+ * go into pooled direct buffers and are sent with one gathering write per connection and read. A client that doesn't
+ * read its replies isn't read from until they have been written.
+ */
+public class MachineServer implements AutoCloseable {
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final int BACKLOG = 4096;
+    private static final int MAX_MACHINES = 1 << 16;
+
+    private final List<Machine> machines;
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+    private final BufferPool pool = new BufferPool();
+    private final Thread selectorThread;
+    private volatile boolean closed;
+
+    public MachineServer(InetSocketAddress address, List<? extends Machine> machines) throws IOException {
+        if (machines.isEmpty() || machines.size() > MAX_MACHINES) {
+            throw new IllegalArgumentException(String.format(
+                    "A server takes 1 to %d machines, was given %d", MAX_MACHINES, machines.size()));
+        }
+        this.machines = new ArrayList<>(machines);
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(address, BACKLOG);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        this.selectorThread = new Thread(this::selectLoop, "machine-server");
+        this.selectorThread.setDaemon(true);
+        this.selectorThread.start();
+    }
+
+    public InetSocketAddress getAddress() {
+        try {
+            return (InetSocketAddress) serverChannel.getLocalAddress();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Stops serving and closes all connections.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        closed = true;
+        selector.wakeup();
+        selectorThread.join();
+    }
+
+    private void selectLoop() {
+        try {
+            while (!closed) {
+                selector.select(this::handle);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            shutDown();
+        }
+    }
+
+    private void handle(SelectionKey key) {
+        try {
+            if (key.isAcceptable()) {
+                accept();
+                return;
+            }
+            var connection = (Connection) key.attachment();
+            if (key.isReadable()) {
+                read(key, connection);
+            }
+            if (key.isValid() && key.isWritable()) {
+                write(key, connection);
+            }
+        } catch (IOException | RuntimeException e) {
+            // a client gone away (or one that couldn't be accepted or served), the others carry on
+            if (key.attachment() != null) {
+                disconnect(key);
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            channel.register(selector, SelectionKey.OP_READ, new Connection(channel, pool));
+        }
+    }
+
+    private void read(SelectionKey key, Connection connection) throws IOException {
+        readBuffer.clear();
+        connection.restorePartialRequest(readBuffer);
+        if (connection.getChannel().read(readBuffer) < 0) {
+            disconnect(key);
+            return;
+        }
+        readBuffer.flip();
+        while (readBuffer.remaining() >= Protocol.FRAME_SIZE) {
+            handleRequest(connection, readBuffer.position());
+            readBuffer.position(readBuffer.position() + Protocol.FRAME_SIZE);
+        }
+        connection.keepPartialRequest(readBuffer);
+        write(key, connection);
+    }
+
+    private void handleRequest(Connection connection, int offset) {
+        int requestId = Protocol.requestIdAt(readBuffer, offset);
+        byte operation = Protocol.codeAt(readBuffer, offset);
+        int machineNumber = Protocol.machineAt(readBuffer, offset);
+        int argument = Protocol.valueAt(readBuffer, offset);
+        if (machineNumber >= machines.size()) {
+            connection.reply(requestId, Protocol.UNKNOWN_MACHINE, machineNumber, 0);
+            return;
+        }
+
+        var machine = machines.get(machineNumber);
+        byte status;
+        int balance = 0;
+        try {
+            status = perform(machine, operation, argument);
+            balance = machine.getCoinBalance();
+        } catch (RuntimeException e) {
+            // one broken machine fails its own requests, it doesn't take the server down with it
+            status = Protocol.FAILED;
+        }
+        connection.reply(requestId, status, machineNumber, balance);
+    }
+
+    private static byte perform(Machine machine, byte operation, int argument) {
+        try {
+            switch (operation) {
+                case Protocol.INSERT_COINS:
+                    if (argument <= 0) {
+                        return Protocol.REJECTED;
+                    }
+                    machine.insertCoins(argument);
+                    return Protocol.OK;
+                case Protocol.CHOOSE:
+                    machine.choose(argument);
+                    return Protocol.OK;
+                case Protocol.RETURN_COINS:
+                    machine.returnCoins();
+                    return Protocol.OK;
+                default:
+                    return Protocol.UNKNOWN_OPERATION;
+            }
+        } catch (IllegalArgumentException e) {
+            return Protocol.REJECTED;
+        }
+    }
+
+    private void write(SelectionKey key, Connection connection) throws IOException {
+        if (connection.flush()) {
+            key.interestOps(SelectionKey.OP_READ);
+        } else {
+            // stop reading until the client takes its replies
+            key.interestOps(SelectionKey.OP_WRITE);
+        }
+    }
+
+    private void disconnect(SelectionKey key) {
+        key.cancel();
+        ((Connection) key.attachment()).close();
+    }
+
+    private void shutDown() {
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() instanceof Connection) {
+                ((Connection) key.attachment()).close();
+            }
+        }
+        try {
+            serverChannel.close();
+            selector.close();
+        } catch (IOException ignored) {
+            // shutting down anyway
+        }
+    }
+
+    /**
+     * Serves silent v7 machines until killed. Arguments: port, number of machines (defaults: 7070, 1024).
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 7070;
+        int count = args.length > 1 ? Integer.parseInt(args[1]) : 1024;
+        var machines = new ArrayList<Machine>(count);
+        for (int i = 0; i < count; i++) {
+            machines.add(new VendingMachine(new SilentMachineDisplay()));
+        }
+        var server = new MachineServer(new InetSocketAddress(port), machines);
+        System.out.printf("Serving %d machines on %s%n", count, server.getAddress());
+        Thread.currentThread().join();
+    }
+}
@@ -0,0 +1,64 @@
+package pl.pragmatists.complexity.machine.remote;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Wire format of {@link MachineServer}. Requests and replies are both {@value #FRAME_SIZE}-byte frames, big-endian:
+ * <pre>
+ * request: int request id | byte operation | byte 0 | unsigned short machine | int argument
+ * reply:   int request id | byte status    | byte 0 | unsigned short machine | int coin balance after the operation
+ * </pre>
+ * The argument is the amount for {@link #INSERT_COINS}, the selected number for {@link #CHOOSE} and ignored for
+ * {@link #RETURN_COINS}. A client may send any number of requests without waiting; replies come back in the same
+ * order.
+ * <p>
+ * {@link #REJECTED} means the machine refused the request (e.g. a non-positive amount of coins) and nothing changed.
+ * {@link #FAILED} means the machine broke down while handling it; its balance is then unknown and reported as 0.
+ */
+public final class Protocol {
+    public static final int FRAME_SIZE = 12;
+
+    public static final byte INSERT_COINS = 1;
+    public static final byte CHOOSE = 2;
+    public static final byte RETURN_COINS = 3;
+
+    public static final byte OK = 0;
+    public static final byte UNKNOWN_MACHINE = 1;
+    public static final byte UNKNOWN_OPERATION = 2;
+    public static final byte REJECTED = 3;
+    public static final byte FAILED = 4;
+
+    private Protocol() {
+    }
+
+    public static void putRequest(ByteBuffer buffer, int requestId, byte operation, int machine, int argument) {
+        putFrame(buffer, requestId, operation, machine, argument);
+    }
+
+    static void putReply(ByteBuffer buffer, int requestId, byte status, int machine, int balance) {
+        putFrame(buffer, requestId, status, machine, balance);
+    }
+
+    private static void putFrame(ByteBuffer buffer, int requestId, byte code, int machine, int value) {
+        buffer.putInt(requestId).put(code).put((byte) 0).putShort((short) machine).putInt(value);
+    }
+
+    /**
+     * Request id of the frame starting at {@code offset}; the other fields follow at fixed offsets.
+     */
+    public static int requestIdAt(ByteBuffer buffer, int offset) {
+        return buffer.getInt(offset);
+    }
+
+    public static byte codeAt(ByteBuffer buffer, int offset) {
+        return buffer.get(offset + 4);
+    }
+
+    public static int machineAt(ByteBuffer buffer, int offset) {
+        return buffer.getShort(offset + 6) & 0xFFFF;
+    }
+
+    public static int valueAt(ByteBuffer buffer, int offset) {
+        return buffer.getInt(offset + 8);
+    }
+}
@@ -0,0 +1,39 @@
+package pl.pragmatists.complexity.machine.session;
+
+import pl.pragmatists.complexity.machine.v7.BatchCommands;
+
+import java.nio.IntBuffer;
+
+/**
+ * One customer's interaction with a machine: inserting coins, choosing items and taking the change.
+ */
+public final class CustomerSession {
+    private final int[] commands;
+
+    private CustomerSession(int[] commands) {
+        this.commands = commands;
+    }
+
+    public static CustomerSession of(int coins, int... choices) {
+        int[] commands = new int[2 * (choices.length + 2)];
+        commands[0] = BatchCommands.INSERT_COINS;
+        commands[1] = coins;
+        for (int i = 0; i < choices.length; i++) {
+            commands[2 * i + 2] = BatchCommands.CHOOSE;
+            commands[2 * i + 3] = choices[i];
+        }
+        commands[commands.length - 2] = BatchCommands.RETURN_COINS;
+        return new CustomerSession(commands);
+    }
+
+    /**
+     * Number of hardware events (coins inserted, buttons pressed, change taken) the customer goes through.
+     */
+    public int getSteps() {
+        return commands.length / 2;
+    }
+
+    IntBuffer commands() {
+        return IntBuffer.wrap(commands).asReadOnlyBuffer();
+    }
+}
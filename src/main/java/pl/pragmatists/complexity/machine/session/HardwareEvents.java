@@ -0,0 +1,21 @@
+package pl.pragmatists.complexity.machine.session;
+
+import java.time.Duration;
+
+/**
+ * What a customer session waits on between its steps: the coin acceptor counting coins, the customer pressing
+ * a button and so on.
+ */
+@FunctionalInterface
+public interface HardwareEvents {
+    HardwareEvents NONE = () -> {
+    };
+
+    void awaitEvent() throws InterruptedException;
+
+    static HardwareEvents every(Duration latency) {
+        long millis = latency.toMillis();
+        int nanos = latency.toNanosPart() % 1_000_000;
+        return () -> Thread.sleep(millis, nanos);
+    }
+}
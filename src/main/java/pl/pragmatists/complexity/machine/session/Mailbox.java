@@ -0,0 +1,47 @@
+package pl.pragmatists.complexity.machine.session;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Runs tasks submitted from any number of threads one at a time, in submission order. Lets a machine that isn't
+ * thread-safe be driven by many sessions: only one task touches the machine at any moment and each task sees the
+ * effects of the ones submitted before it.
+ * <p>
+ * There is no thread of its own: whichever submitter finds the mailbox idle runs the queued tasks, including those
+ * added by others while it is at it.
+ */
+public class Mailbox {
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        var result = new CompletableFuture<T>();
+        tasks.add(() -> {
+            try {
+                result.complete(task.get());
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        drain();
+        return result;
+    }
+
+    private void drain() {
+        // a task added after the last poll but before the flag was cleared would otherwise be left behind
+        while (!tasks.isEmpty() && draining.compareAndSet(false, true)) {
+            try {
+                Runnable task;
+                while ((task = tasks.poll()) != null) {
+                    task.run();
+                }
+            } finally {
+                draining.set(false);
+            }
+        }
+    }
+}
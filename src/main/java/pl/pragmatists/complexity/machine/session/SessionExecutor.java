@@ -0,0 +1,76 @@
+package pl.pragmatists.complexity.machine.session;
+
+import pl.pragmatists.complexity.machine.v7.BatchResult;
+import pl.pragmatists.complexity.machine.v7.VendingMachine;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs each customer session on its own thread taken from {@code sessionThreads}. A session spends most of its time
+ * waiting for {@link HardwareEvents}; only once the customer is done is the whole interaction handed to the machine's
+ * {@link Mailbox}, so sessions at the same machine are applied one after another in the order they finished.
+ * <p>
+ * Meant to be used with a thread-per-task executor. With virtual threads (see {@code VirtualThreadSessions}, built by
+ * the {@code java21} profile) it takes hundreds of thousands of concurrent sessions.
+ */
+public class SessionExecutor implements AutoCloseable {
+    private final List<VendingMachine> machines;
+    private final Mailbox[] mailboxes;
+    private final ExecutorService sessionThreads;
+    private final HardwareEvents hardwareEvents;
+
+    public SessionExecutor(List<VendingMachine> machines, ExecutorService sessionThreads, HardwareEvents hardwareEvents) {
+        this.machines = List.copyOf(machines);
+        this.mailboxes = new Mailbox[machines.size()];
+        for (int i = 0; i < mailboxes.length; i++) {
+            mailboxes[i] = new Mailbox();
+        }
+        this.sessionThreads = sessionThreads;
+        this.hardwareEvents = hardwareEvents;
+    }
+
+    public CompletableFuture<BatchResult> submit(int machine, CustomerSession session) {
+        if (machine < 0 || machine >= machines.size()) {
+            throw new IllegalArgumentException(String.format("No machine %d, there are %d", machine, machines.size()));
+        }
+        var vendingMachine = machines.get(machine);
+        var mailbox = mailboxes[machine];
+        return CompletableFuture.supplyAsync(() -> {
+            awaitCustomer(session);
+            return mailbox.submit(() -> vendingMachine.apply(session.commands(), true)).join();
+        }, sessionThreads);
+    }
+
+    private void awaitCustomer(CustomerSession session) {
+        try {
+            for (int step = 0; step < session.getSteps(); step++) {
+                hardwareEvents.awaitEvent();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+    }
+
+    public int getMachineCount() {
+        return machines.size();
+    }
+
+    /**
+     * Stops taking sessions and waits up to {@code timeout} for the running ones to finish.
+     */
+    public boolean close(Duration timeout) throws InterruptedException {
+        sessionThreads.shutdown();
+        return sessionThreads.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        close(Duration.ofSeconds(30));
+    }
+}
@@ -0,0 +1,65 @@
+package pl.pragmatists.complexity.machine.simulation;
+
+/**
+ * How simulated customers behave at a machine. Rates are probabilities per visit.
+ */
+public final class CustomerBehaviour {
+    public static final CustomerBehaviour DEFAULT = new CustomerBehaviour(6, 10, 0.6, 0.03, 0.01, 0.8);
+
+    private final double arrivalsPerHour;
+    private final int maxCoins;
+    private final double chocoBarPreference;
+    private final double unknownChoiceRate;
+    private final double serviceCallRate;
+    private final double changeRequestRate;
+
+    /**
+     * @param arrivalsPerHour    mean number of customers coming to a machine per hour, arrivals are a Poisson process
+     * @param maxCoins           customers insert between 1 and this many coins, uniformly
+     * @param chocoBarPreference share of customers picking a choco bar rather than a juice box
+     * @param unknownChoiceRate  share of customers punching in a number nothing is sold under
+     * @param serviceCallRate    share of customers calling the service ({@code choose(100)}) instead of buying
+     * @param changeRequestRate  share of customers asking for their change; the others walk away leaving it
+     */
+    public CustomerBehaviour(double arrivalsPerHour, int maxCoins, double chocoBarPreference,
+                             double unknownChoiceRate, double serviceCallRate, double changeRequestRate) {
+        if (arrivalsPerHour <= 0 || maxCoins < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "Arrival rate and coins must be positive, were %f and %d", arrivalsPerHour, maxCoins));
+        }
+        if (unknownChoiceRate + serviceCallRate > 1) {
+            throw new IllegalArgumentException(String.format(
+                    "Misuse rates add up to more than 1: %f and %f", unknownChoiceRate, serviceCallRate));
+        }
+        this.arrivalsPerHour = arrivalsPerHour;
+        this.maxCoins = maxCoins;
+        this.chocoBarPreference = chocoBarPreference;
+        this.unknownChoiceRate = unknownChoiceRate;
+        this.serviceCallRate = serviceCallRate;
+        this.changeRequestRate = changeRequestRate;
+    }
+
+    public double getArrivalsPerHour() {
+        return arrivalsPerHour;
+    }
+
+    public int getMaxCoins() {
+        return maxCoins;
+    }
+
+    public double getChocoBarPreference() {
+        return chocoBarPreference;
+    }
+
+    public double getUnknownChoiceRate() {
+        return unknownChoiceRate;
+    }
+
+    public double getServiceCallRate() {
+        return serviceCallRate;
+    }
+
+    public double getChangeRequestRate() {
+        return changeRequestRate;
+    }
+}
@@ -0,0 +1,83 @@
+package pl.pragmatists.complexity.machine.simulation;
+
+import java.util.Arrays;
+
+/**
+ * Pending events ordered by simulated time, as a binary min-heap of packed {@code long}s: time in milliseconds, then
+ * machine, then event type. Equal times are thus always taken in the same order, whatever order they were scheduled
+ * in, and no object is allocated per event.
+ */
+final class EventQueue {
+    static final int ARRIVAL = 0;
+    static final int RESTOCK = 1;
+
+    private static final int TYPE_BITS = 1;
+    private static final int MACHINE_BITS = 21;
+    static final int MAX_MACHINES = 1 << MACHINE_BITS;
+    static final long MAX_TIME = (1L << (63 - MACHINE_BITS - TYPE_BITS)) - 1;
+
+    private long[] heap;
+    private int size;
+
+    EventQueue(int capacity) {
+        this.heap = new long[Math.max(1, capacity)];
+    }
+
+    void schedule(long time, int machine, int type) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        long event = (time << (MACHINE_BITS + TYPE_BITS)) | ((long) machine << TYPE_BITS) | type;
+        int child = size++;
+        while (child > 0) {
+            int parent = (child - 1) >>> 1;
+            if (heap[parent] <= event) {
+                break;
+            }
+            heap[child] = heap[parent];
+            child = parent;
+        }
+        heap[child] = event;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes the next event and returns it, still packed; see {@link #timeOf}, {@link #machineOf}, {@link #typeOf}.
+     */
+    long poll() {
+        long first = heap[0];
+        long last = heap[--size];
+        int parent = 0;
+        while (true) {
+            int child = 2 * parent + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (last <= heap[child]) {
+                break;
+            }
+            heap[parent] = heap[child];
+            parent = child;
+        }
+        heap[parent] = last;
+        return first;
+    }
+
+    static long timeOf(long event) {
+        return event >>> (MACHINE_BITS + TYPE_BITS);
+    }
+
+    static int machineOf(long event) {
+        return (int) (event >>> TYPE_BITS) & (MAX_MACHINES - 1);
+    }
+
+    static int typeOf(long event) {
+        return (int) event & ((1 << TYPE_BITS) - 1);
+    }
+}
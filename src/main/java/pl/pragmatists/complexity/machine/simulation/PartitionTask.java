@@ -0,0 +1,38 @@
+package pl.pragmatists.complexity.machine.simulation;
+
+import java.time.Duration;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Simulates a range of machines, splitting it in halves until a part is no bigger than {@code partitionSize}. Parts
+ * share nothing but the (immutable) simulation settings; their results are added up on the way back.
+ */
+class PartitionTask extends RecursiveTask<SimulationResult> {
+    private final Simulation simulation;
+    private final int fromMachine;
+    private final int toMachine;
+    private final Duration simulatedTime;
+    private final int partitionSize;
+
+    PartitionTask(Simulation simulation, int fromMachine, int toMachine, Duration simulatedTime, int partitionSize) {
+        this.simulation = simulation;
+        this.fromMachine = fromMachine;
+        this.toMachine = toMachine;
+        this.simulatedTime = simulatedTime;
+        this.partitionSize = partitionSize;
+    }
+
+    @Override
+    protected SimulationResult compute() {
+        if (toMachine - fromMachine <= partitionSize) {
+            return simulation.run(fromMachine, toMachine, simulatedTime);
+        }
+
+        int middle = (fromMachine + toMachine) >>> 1;
+        var right = new PartitionTask(simulation, middle, toMachine, simulatedTime, partitionSize);
+        right.fork();
+        var left = new PartitionTask(simulation, fromMachine, middle, simulatedTime, partitionSize).compute();
+        // always left + right, although integer sums would come out the same in any order
+        return left.plus(right.join());
+    }
+}
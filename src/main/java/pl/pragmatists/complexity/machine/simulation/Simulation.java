@@ -0,0 +1,172 @@
+package pl.pragmatists.complexity.machine.simulation;
+
+import pl.pragmatists.complexity.machine.concurrent.VendingMachine;
+import pl.pragmatists.complexity.machine.v7.MachineService;
+
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Discrete-event simulation of a fleet of {@code concurrent.VendingMachine}s: customers arrive at random, insert coins,
+ * choose (sometimes wrongly), and an operator restocks every machine at a fixed interval. Simulated time jumps from one
+ * event to the next, so a run takes as long as processing its events does, not as long as the time simulated.
+ * <p>
+ * Each machine draws from a random generator of its own, seeded from the simulation seed and the machine number, and
+ * machines don't affect each other. The same seed therefore always gives the same result, however the machines are
+ * split up between runs -- and {@link #run(Duration, ForkJoinPool)} splits them up between threads.
+ */
+public class Simulation {
+    static final int CHOCO_BAR = 1;
+    static final int JUICE_BOX = 2;
+    private static final int RETURN_COINS = 0;
+    private static final int CALL_SERVICE = 100;
+    private static final int FIRST_UNKNOWN_CHOICE = 3;
+    private static final int INITIAL_STOCK = 5;
+    private static final long MILLIS_PER_HOUR = Duration.ofHours(1).toMillis();
+    private static final Duration DEFAULT_RESTOCK_INTERVAL = Duration.ofHours(24);
+    private static final int DEFAULT_CAPACITY = 60;
+    private static final int PARTS_PER_THREAD = 4;
+    private static final int MIN_PARTITION_SIZE = 16;
+
+    private final int machines;
+    private final long seed;
+    private final CustomerBehaviour behaviour;
+    private final long restockIntervalMillis;
+    private final int capacity;
+
+    public Simulation(int machines, long seed) {
+        this(machines, seed, CustomerBehaviour.DEFAULT, DEFAULT_RESTOCK_INTERVAL, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity items of each product a machine holds after restocking
+     */
+    public Simulation(int machines, long seed, CustomerBehaviour behaviour, Duration restockInterval, int capacity) {
+        if (machines < 1 || machines > EventQueue.MAX_MACHINES) {
+            throw new IllegalArgumentException(String.format(
+                    "Number of machines must be between 1 and %d, was %d", EventQueue.MAX_MACHINES, machines));
+        }
+        if (restockInterval.toMillis() < 1 || capacity < INITIAL_STOCK) {
+            throw new IllegalArgumentException(String.format(
+                    "Invalid restock interval %s or capacity %d", restockInterval, capacity));
+        }
+        this.machines = machines;
+        this.seed = seed;
+        this.behaviour = behaviour;
+        this.restockIntervalMillis = restockInterval.toMillis();
+        this.capacity = capacity;
+    }
+
+    public SimulationResult run(Duration simulatedTime) {
+        return run(0, machines, simulatedTime);
+    }
+
+    /**
+     * Simulates the machines in parts on the threads of {@code pool}. The result is exactly the one {@link
+     * #run(Duration)} gives.
+     */
+    public SimulationResult run(Duration simulatedTime, ForkJoinPool pool) {
+        int parts = pool.getParallelism() * PARTS_PER_THREAD;
+        int partitionSize = Math.max(MIN_PARTITION_SIZE, (machines + parts - 1) / parts);
+        return pool.invoke(new PartitionTask(this, 0, machines, simulatedTime, partitionSize));
+    }
+
+    public int getMachines() {
+        return machines;
+    }
+
+    /**
+     * Simulates machines from {@code fromMachine} (inclusive) to {@code toMachine} (exclusive) only.
+     */
+    SimulationResult run(int fromMachine, int toMachine, Duration simulatedTime) {
+        long duration = simulatedTime.toMillis();
+        if (duration > EventQueue.MAX_TIME) {
+            throw new IllegalArgumentException(String.format("Can't simulate more than %d ms", EventQueue.MAX_TIME));
+        }
+        // issue reports go nowhere, service calls are counted by the simulation itself
+        var machineService = new MachineService(batch -> {
+        });
+        try {
+            return simulate(fromMachine, toMachine, duration, machineService);
+        } finally {
+            try {
+                machineService.close(Duration.ZERO);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private SimulationResult simulate(int fromMachine, int toMachine, long duration, MachineService machineService) {
+        var tally = new Tally();
+        int count = toMachine - fromMachine;
+        var vendingMachines = new VendingMachine[count];
+        var randoms = new SplittableRandom[count];
+        var queue = new EventQueue(2 * count);
+        for (int i = 0; i < count; i++) {
+            int machine = fromMachine + i;
+            randoms[i] = new SplittableRandom(seedOf(machine));
+            vendingMachines[i] = new VendingMachine("sim-" + machine, tally, machineService, tally);
+            vendingMachines[i].restock(capacity - INITIAL_STOCK, capacity - INITIAL_STOCK);
+            queue.schedule(nextArrival(0, randoms[i]), i, EventQueue.ARRIVAL);
+            queue.schedule(1 + randoms[i].nextLong(restockIntervalMillis), i, EventQueue.RESTOCK);
+        }
+
+        while (!queue.isEmpty()) {
+            long event = queue.poll();
+            long time = EventQueue.timeOf(event);
+            if (time >= duration) {
+                break;
+            }
+            int i = EventQueue.machineOf(event);
+            tally.events++;
+            if (EventQueue.typeOf(event) == EventQueue.ARRIVAL) {
+                serveCustomer(vendingMachines[i], randoms[i], tally);
+                queue.schedule(nextArrival(time, randoms[i]), i, EventQueue.ARRIVAL);
+            } else {
+                restock(vendingMachines[i], tally);
+                queue.schedule(time + restockIntervalMillis, i, EventQueue.RESTOCK);
+            }
+        }
+        return tally.toResult();
+    }
+
+    private void serveCustomer(VendingMachine vendingMachine, SplittableRandom random, Tally tally) {
+        tally.customers++;
+        vendingMachine.insertCoins(1 + random.nextInt(behaviour.getMaxCoins()));
+
+        double choice = random.nextDouble();
+        if (choice < behaviour.getUnknownChoiceRate()) {
+            tally.unknownChoices++;
+            vendingMachine.choose(random.nextInt(FIRST_UNKNOWN_CHOICE, CALL_SERVICE));
+        } else if (choice < behaviour.getUnknownChoiceRate() + behaviour.getServiceCallRate()) {
+            tally.serviceCalls++;
+            vendingMachine.choose(CALL_SERVICE);
+        } else {
+            tally.purchasing = true;
+            vendingMachine.choose(random.nextDouble() < behaviour.getChocoBarPreference() ? CHOCO_BAR : JUICE_BOX);
+            tally.purchasing = false;
+        }
+
+        if (random.nextDouble() < behaviour.getChangeRequestRate()) {
+            vendingMachine.choose(RETURN_COINS);
+        }
+    }
+
+    private void restock(VendingMachine vendingMachine, Tally tally) {
+        tally.restocks++;
+        vendingMachine.restock(capacity - vendingMachine.getChocoBarStock(),
+                capacity - vendingMachine.getJuiceBoxStock());
+    }
+
+    private long nextArrival(long now, SplittableRandom random) {
+        // StrictMath: Math.log may give different last bits once JIT-compiled, which would break reproducibility
+        double hours = -StrictMath.log(1 - random.nextDouble()) / behaviour.getArrivalsPerHour();
+        return now + Math.max(1, Math.round(hours * MILLIS_PER_HOUR));
+    }
+
+    private long seedOf(int machine) {
+        return seed ^ (machine * 0x9E3779B97F4A7C15L);
+    }
+}
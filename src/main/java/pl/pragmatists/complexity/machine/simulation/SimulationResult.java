@@ -0,0 +1,133 @@
+package pl.pragmatists.complexity.machine.simulation;
+
+import java.util.Objects;
+
+/**
+ * Totals of a simulation run. Everything is counted in integers, so totals of parts of a fleet add up to exactly the
+ * totals of the whole fleet.
+ */
+public final class SimulationResult {
+    private final long events;
+    private final long customers;
+    private final long chocoBarsSold;
+    private final long juiceBoxesSold;
+    private final long revenue;
+    private final long coinsInserted;
+    private final long coinsReturned;
+    private final long notEnoughCoins;
+    private final long stockouts;
+    private final long unknownChoices;
+    private final long serviceCalls;
+    private final long restocks;
+
+    SimulationResult(long events, long customers, long chocoBarsSold, long juiceBoxesSold, long revenue,
+                     long coinsInserted, long coinsReturned, long notEnoughCoins, long stockouts, long unknownChoices,
+                     long serviceCalls, long restocks) {
+        this.events = events;
+        this.customers = customers;
+        this.chocoBarsSold = chocoBarsSold;
+        this.juiceBoxesSold = juiceBoxesSold;
+        this.revenue = revenue;
+        this.coinsInserted = coinsInserted;
+        this.coinsReturned = coinsReturned;
+        this.notEnoughCoins = notEnoughCoins;
+        this.stockouts = stockouts;
+        this.unknownChoices = unknownChoices;
+        this.serviceCalls = serviceCalls;
+        this.restocks = restocks;
+    }
+
+    public SimulationResult plus(SimulationResult other) {
+        return new SimulationResult(events + other.events, customers + other.customers,
+                chocoBarsSold + other.chocoBarsSold, juiceBoxesSold + other.juiceBoxesSold, revenue + other.revenue,
+                coinsInserted + other.coinsInserted, coinsReturned + other.coinsReturned,
+                notEnoughCoins + other.notEnoughCoins, stockouts + other.stockouts,
+                unknownChoices + other.unknownChoices, serviceCalls + other.serviceCalls, restocks + other.restocks);
+    }
+
+    /**
+     * Customer arrivals and operator visits processed.
+     */
+    public long getEvents() {
+        return events;
+    }
+
+    public long getCustomers() {
+        return customers;
+    }
+
+    public long getChocoBarsSold() {
+        return chocoBarsSold;
+    }
+
+    public long getJuiceBoxesSold() {
+        return juiceBoxesSold;
+    }
+
+    public long getRevenue() {
+        return revenue;
+    }
+
+    public long getCoinsInserted() {
+        return coinsInserted;
+    }
+
+    public long getCoinsReturned() {
+        return coinsReturned;
+    }
+
+    public long getNotEnoughCoins() {
+        return notEnoughCoins;
+    }
+
+    /**
+     * Customers who chose a product that had run out, or came to a machine that had run out of everything.
+     */
+    public long getStockouts() {
+        return stockouts;
+    }
+
+    public long getUnknownChoices() {
+        return unknownChoices;
+    }
+
+    public long getServiceCalls() {
+        return serviceCalls;
+    }
+
+    public long getRestocks() {
+        return restocks;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SimulationResult)) {
+            return false;
+        }
+        var other = (SimulationResult) o;
+        return events == other.events && customers == other.customers && chocoBarsSold == other.chocoBarsSold
+                && juiceBoxesSold == other.juiceBoxesSold && revenue == other.revenue
+                && coinsInserted == other.coinsInserted && coinsReturned == other.coinsReturned
+                && notEnoughCoins == other.notEnoughCoins && stockouts == other.stockouts
+                && unknownChoices == other.unknownChoices && serviceCalls == other.serviceCalls
+                && restocks == other.restocks;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(events, customers, chocoBarsSold, juiceBoxesSold, revenue, coinsInserted,
+                coinsReturned, notEnoughCoins, stockouts, unknownChoices, serviceCalls, restocks);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("events: %d, customers: %d, sold: %d choco bars, %d juice boxes, revenue: %d, "
+                        + "coins inserted: %d, returned: %d, not enough coins: %d, stockouts: %d, unknown choices: %d, "
+                        + "service calls: %d, restocks: %d",
+                events, customers, chocoBarsSold, juiceBoxesSold, revenue, coinsInserted, coinsReturned,
+                notEnoughCoins, stockouts, unknownChoices, serviceCalls, restocks);
+    }
+}
@@ -0,0 +1,40 @@
+package pl.pragmatists.complexity.machine.simulation;
+
+import java.time.Duration;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Runs a simulation and reports its result and how many events per second were processed.
+ * <p>
+ * Arguments: number of machines, simulated hours, seed, threads (defaults: 1000, 8760, 42, 1). With more than one
+ * thread the machines are simulated in parts on a {@link ForkJoinPool}.
+ */
+public class SimulationRunner {
+    public static void main(String[] args) {
+        int machines = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        long hours = args.length > 1 ? Long.parseLong(args[1]) : 8760;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 42;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+
+        var simulation = new Simulation(machines, seed);
+        long start = System.nanoTime();
+        var result = run(simulation, Duration.ofHours(hours), threads);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.println(result);
+        System.out.printf("%d machine-hours in %.2f s, %.0f events/s%n",
+                machines * hours, seconds, result.getEvents() / seconds);
+    }
+
+    private static SimulationResult run(Simulation simulation, Duration simulatedTime, int threads) {
+        if (threads == 1) {
+            return simulation.run(simulatedTime);
+        }
+        var pool = new ForkJoinPool(threads);
+        try {
+            return simulation.run(simulatedTime, pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
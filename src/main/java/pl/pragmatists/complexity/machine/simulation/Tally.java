@@ -0,0 +1,75 @@
+package pl.pragmatists.complexity.machine.simulation;
+
+import pl.pragmatists.complexity.machine.common.DisplayEvent;
+import pl.pragmatists.complexity.machine.common.MachineDisplay;
+import pl.pragmatists.complexity.machine.common.TransactionListener;
+
+/**
+ * Counts what the machines of one simulation run show and report. Plain fields: a tally belongs to a single thread.
+ * <p>
+ * Rejections are only counted while {@link #purchasing} is set, so each customer ends up in exactly one category: an
+ * empty machine answers every choice, returning coins included, with {@code NO_ITEMS_LEFT}, but only a customer who
+ * wanted to buy something met a stockout.
+ */
+final class Tally extends MachineDisplay implements TransactionListener {
+    long events;
+    long customers;
+    long serviceCalls;
+    long unknownChoices;
+    long restocks;
+    boolean purchasing;
+    private long chocoBarsSold;
+    private long juiceBoxesSold;
+    private long revenue;
+    private long coinsInserted;
+    private long coinsReturned;
+    private long notEnoughCoins;
+    private long stockouts;
+
+    @Override
+    public void display(String message) {
+    }
+
+    @Override
+    public void display(DisplayEvent event, String item, int first, int second) {
+        if (!purchasing) {
+            return;
+        }
+        switch (event) {
+            case NOT_ENOUGH_COINS:
+                notEnoughCoins++;
+                break;
+            case ITEM_UNAVAILABLE:
+            case NO_ITEMS_LEFT:
+                stockouts++;
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public void coinsInserted(int amount, int balance) {
+        coinsInserted += amount;
+    }
+
+    @Override
+    public void itemSold(int product, int price, int balance) {
+        if (product == Simulation.CHOCO_BAR) {
+            chocoBarsSold++;
+        } else {
+            juiceBoxesSold++;
+        }
+        revenue += price;
+    }
+
+    @Override
+    public void coinsReturned(int amount) {
+        coinsReturned += amount;
+    }
+
+    SimulationResult toResult() {
+        return new SimulationResult(events, customers, chocoBarsSold, juiceBoxesSold, revenue, coinsInserted,
+                coinsReturned, notEnoughCoins, stockouts, unknownChoices, serviceCalls, restocks);
+    }
+}
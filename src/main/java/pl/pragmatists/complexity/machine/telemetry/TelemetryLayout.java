@@ -0,0 +1,42 @@
+package pl.pragmatists.complexity.machine.telemetry;
+
+/**
+ * Layout of a telemetry file, for readers outside the JVM. All values are big-endian.
+ * <p>
+ * A {@value #HEADER_SIZE}-byte header (magic, version, number of slots) is followed by one {@value #SLOT_SIZE}-byte
+ * slot per machine. The first cache line of a slot holds the sequence and the state, the second one the machine's
+ * serial id (unsigned short length, then UTF-8 bytes), written when a machine is attached to the slot. The serial id is
+ * covered by the sequence just like the state.
+ * <p>
+ * The sequence is odd while the writer is updating the slot. A reader reads the sequence, the fields, and the sequence
+ * again; the fields are a consistent snapshot if both reads gave the same even number, otherwise it tries again. A
+ * sequence of 0 means no machine is attached to the slot.
+ */
+public final class TelemetryLayout {
+    public static final int MAGIC = 0x564D5431;
+    public static final int VERSION = 1;
+    public static final int MAGIC_OFFSET = 0;
+    public static final int VERSION_OFFSET = 4;
+    public static final int SLOTS_OFFSET = 8;
+    public static final int HEADER_SIZE = 64;
+
+    public static final int SLOT_SIZE = 128;
+    public static final int SEQUENCE = 0;
+    public static final int COIN_BALANCE = 8;
+    public static final int CHOCO_BAR_STOCK = 12;
+    public static final int JUICE_BOX_STOCK = 16;
+    public static final int CHOCO_BARS_SOLD = 24;
+    public static final int JUICE_BOXES_SOLD = 32;
+    public static final int REVENUE = 40;
+    public static final int COINS_INSERTED = 48;
+    public static final int COINS_RETURNED = 56;
+    public static final int SERIAL_ID = 64;
+    public static final int MAX_SERIAL_LENGTH = SLOT_SIZE - SERIAL_ID - 2;
+
+    private TelemetryLayout() {
+    }
+
+    static int slotOffset(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+}
@@ -0,0 +1,79 @@
+package pl.pragmatists.complexity.machine.telemetry;
+
+import pl.pragmatists.complexity.machine.journal.MachineState;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static pl.pragmatists.complexity.machine.telemetry.TelemetryLayout.*;
+
+/**
+ * Memory-mapped file mirroring the state of many machines, see {@link TelemetryLayout}. A monitoring agent maps the
+ * same file (for instance with {@link TelemetryReader}) and reads the machines' state straight from memory, without
+ * asking the JVM running them.
+ * <p>
+ * Each machine gets a {@link TelemetrySlot}, which it is given as its {@code TransactionListener}.
+ */
+public class TelemetryMirror implements AutoCloseable {
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int slots;
+
+    private TelemetryMirror(FileChannel channel, MappedByteBuffer buffer, int slots) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.slots = slots;
+    }
+
+    /**
+     * Creates (or overwrites) the file at {@code file} with room for {@code slots} machines.
+     */
+    public static TelemetryMirror create(Path file, int slots) {
+        if (slots < 1) {
+            throw new IllegalArgumentException(String.format("Number of slots must be positive, was %d", slots));
+        }
+        try {
+            var channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            var buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, slotOffset(slots));
+            buffer.putInt(MAGIC_OFFSET, MAGIC);
+            buffer.putInt(VERSION_OFFSET, VERSION);
+            buffer.putInt(SLOTS_OFFSET, slots);
+            return new TelemetryMirror(channel, buffer, slots);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Attaches a machine in {@code state} to slot number {@code slot}.
+     */
+    public TelemetrySlot attach(int slot, String machineSerialId, MachineState state) {
+        if (slot < 0 || slot >= slots) {
+            throw new IllegalArgumentException(String.format("No slot %d, there are %d", slot, slots));
+        }
+        byte[] serial = machineSerialId.getBytes(StandardCharsets.UTF_8);
+        if (serial.length > MAX_SERIAL_LENGTH) {
+            throw new IllegalArgumentException(String.format("Serial id %s is too long", machineSerialId));
+        }
+        return new TelemetrySlot(buffer, slotOffset(slot), serial, state);
+    }
+
+    public int getSlots() {
+        return slots;
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package pl.pragmatists.complexity.machine.telemetry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.VarHandle;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+import static pl.pragmatists.complexity.machine.telemetry.TelemetryLayout.*;
+
+/**
+ * Reads machine state from a telemetry file written by a {@link TelemetryMirror}, possibly in another process. Reading
+ * never blocks the writer: a read that overlaps an update is simply repeated.
+ */
+public class TelemetryReader implements AutoCloseable {
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int slots;
+
+    private TelemetryReader(FileChannel channel, MappedByteBuffer buffer, int slots) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.slots = slots;
+    }
+
+    public static TelemetryReader open(Path file) {
+        try {
+            var channel = FileChannel.open(file, StandardOpenOption.READ);
+            var header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getInt(MAGIC_OFFSET) != MAGIC || header.getInt(VERSION_OFFSET) != VERSION) {
+                channel.close();
+                throw new IllegalArgumentException(String.format("%s is not a telemetry file", file));
+            }
+            int slots = header.getInt(SLOTS_OFFSET);
+            return new TelemetryReader(channel, channel.map(FileChannel.MapMode.READ_ONLY, 0, slotOffset(slots)), slots);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * State of the machine in slot number {@code slot}, empty if no machine has been attached to it.
+     */
+    public Optional<TelemetrySnapshot> read(int slot) {
+        if (slot < 0 || slot >= slots) {
+            throw new IllegalArgumentException(String.format("No slot %d, there are %d", slot, slots));
+        }
+        int offset = slotOffset(slot);
+        if (buffer.getLong(offset + SEQUENCE) == 0) {
+            return Optional.empty();
+        }
+        while (true) {
+            long before = buffer.getLong(offset + SEQUENCE);
+            VarHandle.acquireFence();
+            if ((before & 1) == 0) {
+                // another machine may be attached to the slot meanwhile, so the serial is read under the sequence too
+                String serial = readSerial(offset);
+                var snapshot = new TelemetrySnapshot(serial,
+                        buffer.getInt(offset + COIN_BALANCE),
+                        buffer.getInt(offset + CHOCO_BAR_STOCK),
+                        buffer.getInt(offset + JUICE_BOX_STOCK),
+                        buffer.getLong(offset + CHOCO_BARS_SOLD),
+                        buffer.getLong(offset + JUICE_BOXES_SOLD),
+                        buffer.getLong(offset + REVENUE),
+                        buffer.getLong(offset + COINS_INSERTED),
+                        buffer.getLong(offset + COINS_RETURNED));
+                // the fields have to be read before the sequence is checked again
+                VarHandle.loadLoadFence();
+                if (buffer.getLong(offset + SEQUENCE) == before) {
+                    return Optional.of(snapshot);
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    public int getSlots() {
+        return slots;
+    }
+
+    private String readSerial(int offset) {
+        // a length torn by a concurrent attach must not take the read out of the slot
+        byte[] serial = new byte[Math.min(buffer.getShort(offset + SERIAL_ID) & 0xFFFF, MAX_SERIAL_LENGTH)];
+        buffer.duplicate().position(offset + SERIAL_ID + 2).get(serial);
+        return new String(serial, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package pl.pragmatists.complexity.machine.telemetry;
+
+import pl.pragmatists.complexity.machine.common.TransactionListener;
+import pl.pragmatists.complexity.machine.journal.MachineState;
+
+import java.lang.invoke.VarHandle;
+import java.nio.MappedByteBuffer;
+
+import static pl.pragmatists.complexity.machine.telemetry.TelemetryLayout.*;
+
+/**
+ * One machine's slot in a {@link TelemetryMirror}, kept up to date from the machine's transactions. Every update is a
+ * seqlock write: the sequence is made odd, the fields are written, the sequence is made even again. Nothing is locked
+ * and readers never hold the machine up.
+ * <p>
+ * There must be a single writer, the thread driving the machine.
+ */
+public final class TelemetrySlot implements TransactionListener {
+    private final MappedByteBuffer buffer;
+    private final int offset;
+    private long sequence;
+
+    TelemetrySlot(MappedByteBuffer buffer, int offset, byte[] serial, MachineState state) {
+        this.buffer = buffer;
+        this.offset = offset;
+        // carry on from a previous machine in this slot, readers may still hold its sequence
+        this.sequence = buffer.getLong(offset + SEQUENCE) & ~1L;
+        begin();
+        buffer.putShort(offset + SERIAL_ID, (short) serial.length);
+        buffer.duplicate().position(offset + SERIAL_ID + 2).put(serial);
+        buffer.putInt(offset + COIN_BALANCE, state.getCoinBalance());
+        buffer.putInt(offset + CHOCO_BAR_STOCK, state.getChocoBarStock());
+        buffer.putInt(offset + JUICE_BOX_STOCK, state.getJuiceBoxStock());
+        for (int field = CHOCO_BARS_SOLD; field <= COINS_RETURNED; field += Long.BYTES) {
+            buffer.putLong(offset + field, 0);
+        }
+        end();
+    }
+
+    @Override
+    public void coinsInserted(int amount, int balance) {
+        begin();
+        buffer.putInt(offset + COIN_BALANCE, balance);
+        add(COINS_INSERTED, amount);
+        end();
+    }
+
+    @Override
+    public void itemSold(int product, int price, int balance) {
+        begin();
+        buffer.putInt(offset + COIN_BALANCE, balance);
+        if (product == MachineState.CHOCO_BAR) {
+            buffer.putInt(offset + CHOCO_BAR_STOCK, buffer.getInt(offset + CHOCO_BAR_STOCK) - 1);
+            add(CHOCO_BARS_SOLD, 1);
+        } else {
+            buffer.putInt(offset + JUICE_BOX_STOCK, buffer.getInt(offset + JUICE_BOX_STOCK) - 1);
+            add(JUICE_BOXES_SOLD, 1);
+        }
+        add(REVENUE, price);
+        end();
+    }
+
+    @Override
+    public void coinsReturned(int amount) {
+        begin();
+        buffer.putInt(offset + COIN_BALANCE, 0);
+        add(COINS_RETURNED, amount);
+        end();
+    }
+
+    private void add(int field, long amount) {
+        buffer.putLong(offset + field, buffer.getLong(offset + field) + amount);
+    }
+
+    private void begin() {
+        buffer.putLong(offset + SEQUENCE, ++sequence);
+        // the odd sequence has to be visible before any of the fields change
+        VarHandle.storeStoreFence();
+    }
+
+    private void end() {
+        // and the fields have to be visible before the even sequence is
+        VarHandle.releaseFence();
+        buffer.putLong(offset + SEQUENCE, ++sequence);
+    }
+}
@@ -0,0 +1,65 @@
+package pl.pragmatists.complexity.machine.telemetry;
+
+/**
+ * State of one machine as read from a telemetry file, all fields from the same moment.
+ */
+public final class TelemetrySnapshot {
+    private final String machineSerialId;
+    private final int coinBalance;
+    private final int chocoBarStock;
+    private final int juiceBoxStock;
+    private final long chocoBarsSold;
+    private final long juiceBoxesSold;
+    private final long revenue;
+    private final long coinsInserted;
+    private final long coinsReturned;
+
+    TelemetrySnapshot(String machineSerialId, int coinBalance, int chocoBarStock, int juiceBoxStock,
+                      long chocoBarsSold, long juiceBoxesSold, long revenue, long coinsInserted, long coinsReturned) {
+        this.machineSerialId = machineSerialId;
+        this.coinBalance = coinBalance;
+        this.chocoBarStock = chocoBarStock;
+        this.juiceBoxStock = juiceBoxStock;
+        this.chocoBarsSold = chocoBarsSold;
+        this.juiceBoxesSold = juiceBoxesSold;
+        this.revenue = revenue;
+        this.coinsInserted = coinsInserted;
+        this.coinsReturned = coinsReturned;
+    }
+
+    public String getMachineSerialId() {
+        return machineSerialId;
+    }
+
+    public int getCoinBalance() {
+        return coinBalance;
+    }
+
+    public int getChocoBarStock() {
+        return chocoBarStock;
+    }
+
+    public int getJuiceBoxStock() {
+        return juiceBoxStock;
+    }
+
+    public long getChocoBarsSold() {
+        return chocoBarsSold;
+    }
+
+    public long getJuiceBoxesSold() {
+        return juiceBoxesSold;
+    }
+
+    public long getRevenue() {
+        return revenue;
+    }
+
+    public long getCoinsInserted() {
+        return coinsInserted;
+    }
+
+    public long getCoinsReturned() {
+        return coinsReturned;
+    }
+}
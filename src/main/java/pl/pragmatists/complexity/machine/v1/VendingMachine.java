@@ -1,8 +1,9 @@
 package pl.pragmatists.complexity.machine.v1;
 
+import pl.pragmatists.complexity.machine.common.Machine;
 import pl.pragmatists.complexity.machine.common.MachineDisplay;
 
-public class VendingMachine {
+public class VendingMachine implements Machine {
     private static final int CHOCO_BAR_PRICE = 5;
     private static final int JUICE_BOX_PRICE = 7;
 
@@ -1,10 +1,11 @@
 package pl.pragmatists.complexity.machine.v4;
 
+import pl.pragmatists.complexity.machine.common.Machine;
 import pl.pragmatists.complexity.machine.common.MachineDisplay;
 
 import java.util.function.*;
 
-public class VendingMachine {
+public class VendingMachine implements Machine {
     private static final int CHOCO_BAR_PRICE = 5;
     private static final int JUICE_BOX_PRICE = 7;
 
@@ -1,12 +1,13 @@
 package pl.pragmatists.complexity.machine.v5a;
 
+import pl.pragmatists.complexity.machine.common.Machine;
 import pl.pragmatists.complexity.machine.common.MachineDisplay;
 
 import java.util.function.BooleanSupplier;
 import java.util.function.IntConsumer;
 import java.util.function.IntSupplier;
 
-public class VendingMachine {
+public class VendingMachine implements Machine {
     private static final int CHOCO_BAR_PRICE = 5;
     private static final int JUICE_BOX_PRICE = 7;
 
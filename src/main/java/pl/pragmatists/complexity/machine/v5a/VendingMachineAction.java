@@ -1,6 +1,7 @@
 package pl.pragmatists.complexity.machine.v5a;
 
-import java.util.Arrays;
+import pl.pragmatists.complexity.machine.common.ChoiceTable;
+
 import java.util.function.Consumer;
 
 public enum VendingMachineAction {
@@ -9,6 +10,9 @@ public enum VendingMachineAction {
     RETURN_COINS(0, VendingMachine::returnCoins),
     UNAVAILABLE(Integer.MIN_VALUE, vm -> vm.display("Choice unavailable"));
 
+    private static final ChoiceTable<VendingMachineAction> CHOICES =
+            ChoiceTable.of(values(), action -> action.choiceNumber, UNAVAILABLE);
+
     private final int choiceNumber;
     private final Consumer<VendingMachine> action;
 
@@ -22,9 +26,6 @@ public enum VendingMachineAction {
     }
 
     public static VendingMachineAction of(int code) {
-        return Arrays.stream(values())
-                .filter(v -> code == v.choiceNumber)
-                .findAny()
-                .orElse(UNAVAILABLE);
+        return CHOICES.get(code);
     }
 }
@@ -1,6 +1,6 @@
 package pl.pragmatists.complexity.machine.v5b;
 
-import java.util.Arrays;
+import pl.pragmatists.complexity.machine.common.ChoiceTable;
 
 public enum VendingMachineAction {
     SELL_CHOCO_BAR(1),
@@ -8,6 +8,9 @@ public enum VendingMachineAction {
     RETURN_COINS(0),
     UNAVAILABLE(Integer.MIN_VALUE);
 
+    private static final ChoiceTable<VendingMachineAction> CHOICES =
+            ChoiceTable.of(values(), action -> action.choiceNumber, UNAVAILABLE);
+
     private final int choiceNumber;
 
     VendingMachineAction(int choiceNumber) {
@@ -15,9 +18,6 @@ public enum VendingMachineAction {
     }
 
     public static VendingMachineAction of(int code) {
-        return Arrays.stream(values())
-                .filter(v -> code == v.choiceNumber)
-                .findAny()
-                .orElse(UNAVAILABLE);
+        return CHOICES.get(code);
     }
 }
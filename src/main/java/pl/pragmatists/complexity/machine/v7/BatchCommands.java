@@ -0,0 +1,14 @@
+package pl.pragmatists.complexity.machine.v7;
+
+/**
+ * Opcodes of the packed command buffer taken by {@link VendingMachine#apply}. Every command is an (opcode, argument)
+ * pair of {@code int}s; {@link #RETURN_COINS} ignores its argument.
+ */
+public final class BatchCommands {
+    public static final int INSERT_COINS = 1;
+    public static final int CHOOSE = 2;
+    public static final int RETURN_COINS = 3;
+
+    private BatchCommands() {
+    }
+}
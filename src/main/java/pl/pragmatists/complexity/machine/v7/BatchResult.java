@@ -0,0 +1,48 @@
+package pl.pragmatists.complexity.machine.v7;
+
+public final class BatchResult {
+    private final int commands;
+    private final int chocoBarsSold;
+    private final int juiceBoxesSold;
+    private final long coinsInserted;
+    private final long coinsReturned;
+    private final int rejectedChoices;
+
+    BatchResult(int commands, int chocoBarsSold, int juiceBoxesSold, long coinsInserted, long coinsReturned,
+                int rejectedChoices) {
+        this.commands = commands;
+        this.chocoBarsSold = chocoBarsSold;
+        this.juiceBoxesSold = juiceBoxesSold;
+        this.coinsInserted = coinsInserted;
+        this.coinsReturned = coinsReturned;
+        this.rejectedChoices = rejectedChoices;
+    }
+
+    public int getCommands() {
+        return commands;
+    }
+
+    public int getChocoBarsSold() {
+        return chocoBarsSold;
+    }
+
+    public int getJuiceBoxesSold() {
+        return juiceBoxesSold;
+    }
+
+    public long getCoinsInserted() {
+        return coinsInserted;
+    }
+
+    public long getCoinsReturned() {
+        return coinsReturned;
+    }
+
+    /**
+     * Choices that neither sold anything nor returned coins or called the service: not enough coins, item unavailable,
+     * unknown code or nothing left for sale.
+     */
+    public int getRejectedChoices() {
+        return rejectedChoices;
+    }
+}
@@ -0,0 +1,12 @@
+package pl.pragmatists.complexity.machine.v7;
+
+import java.util.List;
+
+public class ConsoleIssueTransport implements IssueTransport {
+    @Override
+    public void deliver(List<String> machineSerialIds) {
+        for (String machineId : machineSerialIds) {
+            System.out.printf("Reported issue for machine %s%n", machineId);
+        }
+    }
+}
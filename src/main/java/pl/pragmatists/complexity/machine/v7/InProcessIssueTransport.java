@@ -0,0 +1,42 @@
+package pl.pragmatists.complexity.machine.v7;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps delivered batches in memory, for tests and simulations. Can be told to fail a number of deliveries first.
+ */
+public class InProcessIssueTransport implements IssueTransport {
+    private final List<List<String>> batches = new ArrayList<>();
+    private int failuresLeft;
+
+    @Override
+    public synchronized void deliver(List<String> machineSerialIds) throws IOException {
+        if (failuresLeft > 0) {
+            failuresLeft--;
+            throw new IOException("Back office unavailable");
+        }
+        batches.add(List.copyOf(machineSerialIds));
+        notifyAll();
+    }
+
+    public synchronized void failNext(int deliveries) {
+        failuresLeft = deliveries;
+    }
+
+    public synchronized List<List<String>> getBatches() {
+        return List.copyOf(batches);
+    }
+
+    /**
+     * Waits until at least {@code count} batches have been delivered.
+     */
+    public synchronized List<List<String>> awaitBatches(int count, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (batches.size() < count && System.currentTimeMillis() < deadline) {
+            wait(Math.max(1, deadline - System.currentTimeMillis()));
+        }
+        return List.copyOf(batches);
+    }
+}
@@ -0,0 +1,12 @@
+package pl.pragmatists.complexity.machine.v7;
+
+import java.util.List;
+
+/**
+ * Delivers issue reports to the back office. A batch either gets delivered as a whole or the call throws, in which case
+ * {@link MachineService} retries it.
+ */
+@FunctionalInterface
+public interface IssueTransport {
+    void deliver(List<String> machineSerialIds) throws Exception;
+}
@@ -1,7 +1,199 @@
 package pl.pragmatists.complexity.machine.v7;
 
-public class MachineService {
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Reports machine issues to the back office without making the caller wait for it. {@link #reportIssue(String)} only
+ * puts the report in a bounded queue; a sender thread delivers whatever has been queued in batches through an
+ * {@link IssueTransport}, retrying failed batches with exponential backoff.
+ * <p>
+ * Reports for a machine that has already reported within the coalescing window are dropped as duplicates, and so are
+ * reports that don't fit in the queue.
+ */
+public class MachineService implements AutoCloseable {
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static final int MAX_BATCH = 64;
+    private static final long IDLE_POLL_MILLIS = 50;
+    private static final Duration DEFAULT_COALESCING_WINDOW = Duration.ofSeconds(30);
+    private static final Duration DEFAULT_INITIAL_BACKOFF = Duration.ofMillis(100);
+    private static final Duration DEFAULT_MAX_BACKOFF = Duration.ofSeconds(30);
+
+    private final IssueTransport transport;
+    private final BlockingQueue<String> queue;
+    private final ConcurrentMap<String, Long> lastReported = new ConcurrentHashMap<>();
+    private final long coalescingWindowNanos;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+    private final LongSupplier nanoClock;
+    private final Thread sender;
+    private volatile boolean closed;
+
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+
+    public MachineService(IssueTransport transport) {
+        this(transport, DEFAULT_CAPACITY, DEFAULT_COALESCING_WINDOW, DEFAULT_INITIAL_BACKOFF, DEFAULT_MAX_BACKOFF);
+    }
+
+    public MachineService(IssueTransport transport, int capacity, Duration coalescingWindow,
+                          Duration initialBackoff, Duration maxBackoff) {
+        this(transport, capacity, coalescingWindow, initialBackoff, maxBackoff, System::nanoTime);
+    }
+
+    MachineService(IssueTransport transport, int capacity, Duration coalescingWindow,
+                   Duration initialBackoff, Duration maxBackoff, LongSupplier nanoClock) {
+        this.transport = transport;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.coalescingWindowNanos = coalescingWindow.toNanos();
+        this.initialBackoffNanos = initialBackoff.toNanos();
+        this.maxBackoffNanos = maxBackoff.toNanos();
+        this.nanoClock = nanoClock;
+        this.sender = new Thread(this::sendLoop, "machine-service-sender");
+        this.sender.setDaemon(true);
+        this.sender.start();
+    }
+
+    /**
+     * Service reporting to the console, shared by all machines that weren't given one. Pending reports are flushed
+     * when the JVM exits.
+     */
+    public static MachineService defaultService() {
+        return DefaultService.INSTANCE;
+    }
+
     public void reportIssue(String machineId) {
-        System.out.printf("Reported issue for machine %s%n", machineId);
+        long now = nanoClock.getAsLong();
+        Long previous = lastReported.get(machineId);
+        if (!claimWindow(machineId, previous, now)) {
+            coalesced.increment();
+            return;
+        }
+        if (closed || !queue.offer(machineId)) {
+            releaseWindow(machineId, previous, now);
+            dropped.increment();
+        }
+    }
+
+    private boolean claimWindow(String machineId, Long previous, long now) {
+        if (previous == null) {
+            return lastReported.putIfAbsent(machineId, now) == null;
+        }
+        return now - previous >= coalescingWindowNanos && lastReported.replace(machineId, previous, now);
+    }
+
+    /**
+     * A dropped report must not hold the window, otherwise the next report of that machine would be coalesced with one
+     * the back office never got.
+     */
+    private void releaseWindow(String machineId, Long previous, long now) {
+        if (previous == null) {
+            lastReported.remove(machineId, now);
+        } else {
+            lastReported.replace(machineId, now, previous);
+        }
+    }
+
+    public long getDeliveredCount() {
+        return delivered.sum();
+    }
+
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public long getRetryCount() {
+        return retries.sum();
+    }
+
+    /**
+     * Stops accepting reports and waits up to {@code timeout} for the queued ones to be delivered. Reports still pending
+     * after that are abandoned.
+     */
+    public void close(Duration timeout) throws InterruptedException {
+        closed = true;
+        sender.join(Math.max(1, timeout.toMillis()));
+        sender.interrupt();
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        close(Duration.ofSeconds(5));
+    }
+
+    private void sendLoop() {
+        List<String> batch = new ArrayList<>(MAX_BATCH);
+        while (true) {
+            String first;
+            try {
+                first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (first == null) {
+                if (closed) {
+                    return;
+                }
+                continue;
+            }
+            batch.add(first);
+            queue.drainTo(batch, MAX_BATCH - 1);
+            if (!deliver(batch)) {
+                return;
+            }
+            batch.clear();
+        }
+    }
+
+    private boolean deliver(List<String> batch) {
+        long backoff = initialBackoffNanos;
+        while (true) {
+            try {
+                transport.deliver(batch);
+                delivered.add(batch.size());
+                return true;
+            } catch (Exception e) {
+                if (closed) {
+                    dropped.add(batch.size());
+                    return false;
+                }
+                retries.increment();
+                try {
+                    TimeUnit.NANOSECONDS.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    dropped.add(batch.size());
+                    return false;
+                }
+                backoff = Math.min(backoff * 2, maxBackoffNanos);
+            }
+        }
+    }
+
+    private static class DefaultService {
+        private static final MachineService INSTANCE = new MachineService(new ConsoleIssueTransport());
+
+        static {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    INSTANCE.close(Duration.ofSeconds(1));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+        }
     }
 }
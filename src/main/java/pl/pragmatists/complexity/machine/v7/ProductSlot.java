@@ -0,0 +1,59 @@
+package pl.pragmatists.complexity.machine.v7;
+
+/**
+ * A product the machine sells together with its stock. Selling goes through {@link #trySell(int)}, so the machine
+ * needs no getter/setter pair per product and nothing is allocated on a sale.
+ */
+final class ProductSlot {
+    enum Sale {
+        SOLD,
+        NOT_ENOUGH_COINS,
+        UNAVAILABLE
+    }
+
+    private final int product;
+    private final String name;
+    private final int price;
+    private int stock;
+
+    ProductSlot(int product, String name, int price, int stock) {
+        this.product = product;
+        this.name = name;
+        this.price = price;
+        this.stock = stock;
+    }
+
+    /**
+     * Takes one item out of stock if {@code balance} covers the price and there is anything left.
+     */
+    Sale trySell(int balance) {
+        if (balance < price) {
+            return Sale.NOT_ENOUGH_COINS;
+        }
+        if (stock == 0) {
+            return Sale.UNAVAILABLE;
+        }
+        stock--;
+        return Sale.SOLD;
+    }
+
+    boolean isAvailable() {
+        return stock > 0;
+    }
+
+    int getProduct() {
+        return product;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    int getPrice() {
+        return price;
+    }
+
+    int getStock() {
+        return stock;
+    }
+}
@@ -3,10 +3,8 @@ package pl.pragmatists.complexity.machine.v7;
 import java.util.function.Consumer;
 
 public class ReportIssueStrategy implements Consumer<VendingMachine> {
-    private final MachineService service = new MachineService();
-
     @Override
     public void accept(VendingMachine vendingMachine) {
-        service.reportIssue(vendingMachine.getMachineSerialId());
+        vendingMachine.getMachineService().reportIssue(vendingMachine.getMachineSerialId());
     }
 }
@@ -1,100 +1,180 @@
 package pl.pragmatists.complexity.machine.v7;
 
+import pl.pragmatists.complexity.machine.common.DisplayEvent;
+import pl.pragmatists.complexity.machine.common.Machine;
 import pl.pragmatists.complexity.machine.common.MachineDisplay;
+import pl.pragmatists.complexity.machine.common.TransactionListener;
+import pl.pragmatists.complexity.machine.journal.MachineState;
+import pl.pragmatists.complexity.machine.metrics.MachineMetrics;
 
-import java.util.function.BooleanSupplier;
-import java.util.function.IntConsumer;
-import java.util.function.IntSupplier;
+import java.nio.IntBuffer;
 
-public class VendingMachine {
+public class VendingMachine implements Machine {
     private static final int CHOCO_BAR_PRICE = 5;
     private static final int JUICE_BOX_PRICE = 7;
 
-    private final String machineSerialId = "xyz-109";
+    private final String machineSerialId;
 
-    private int chocoBarStock = 5;
-    private int juiceBoxStock = 5;
-    private int coinBalance = 0;
+    private final ProductSlot chocoBar;
+    private final ProductSlot juiceBox;
+    private int coinBalance;
+    private boolean muted;
 
     public void choose(int selectedNumber) {
+        long started = metrics.chooseStarted();
         if (!stockAvailable()) {
-            display("No items left for sale");
+            metrics.soldOut();
+            display(DisplayEvent.NO_ITEMS_LEFT);
             returnCoins();
-            return;
+        } else {
+            var selectedAction = VendingMachineAction.of(selectedNumber);
+            selectedAction.performOn(this);
         }
-
-        var selectedAction = VendingMachineAction.of(selectedNumber);
-        selectedAction.performOn(this);
+        metrics.chooseFinished(started);
     }
 
     void sellChocoBar() {
-        sellItem(CHOCO_BAR_PRICE, this::isChocoBarAvailable, "choco bar", this::getChocoBarStock, this::setChocoBarStock);
+        sellItem(chocoBar);
     }
 
     void sellJuiceBox() {
-        sellItem(JUICE_BOX_PRICE, this::isJuiceBoxAvailable, "juice box", this::getJuiceBoxStock, this::setJuiceBoxStock);
+        sellItem(juiceBox);
     }
 
-    private void sellItem(int price,
-                          BooleanSupplier checkStockAvailable,
-                          String itemName,
-                          IntSupplier stockGetter,
-                          IntConsumer stockSetter) {
-        if (coinBalance < price) {
-            display(String.format("Can't sell %s (price: %d), current balance: %d", itemName, price, coinBalance));
+    private void sellItem(ProductSlot slot) {
+        var sale = slot.trySell(coinBalance);
+        if (sale == ProductSlot.Sale.NOT_ENOUGH_COINS) {
+            metrics.notEnoughCoins(slot.getProduct());
+            display(DisplayEvent.NOT_ENOUGH_COINS, slot.getName(), slot.getPrice(), coinBalance);
             return;
         }
 
-        if (!checkStockAvailable.getAsBoolean()) {
-            display(String.format("%s unavailable", itemName));
+        if (sale == ProductSlot.Sale.UNAVAILABLE) {
+            metrics.itemUnavailable(slot.getProduct());
+            display(DisplayEvent.ITEM_UNAVAILABLE, slot.getName(), 0, 0);
             return;
         }
 
-        stockSetter.accept(stockGetter.getAsInt() - 1);
-        setCoinBalance(getCoinBalance() - price);
-        display(String.format("Sold %s, current balance: %d", itemName, coinBalance));
+        setCoinBalance(getCoinBalance() - slot.getPrice());
+        transactionListener.itemSold(slot.getProduct(), slot.getPrice(), coinBalance);
+        metrics.itemSold(slot.getProduct(), slot.getPrice());
+        display(DisplayEvent.ITEM_SOLD, slot.getName(), coinBalance, 0);
     }
 
     public void insertCoins(int amount) {
         coinBalance += amount;
-        display(String.format("Inserted %d coin(s), current balance: %d", amount, coinBalance));
+        transactionListener.coinsInserted(amount, coinBalance);
+        metrics.coinsInserted(amount);
+        display(DisplayEvent.COINS_INSERTED, null, amount, coinBalance);
     }
 
     public void returnCoins() {
-        display(String.format("Returned %d coin(s)", coinBalance));
+        display(DisplayEvent.COINS_RETURNED, null, coinBalance, 0);
+        transactionListener.coinsReturned(coinBalance);
+        metrics.coinsReturned(coinBalance);
         coinBalance = 0;
     }
 
+    /**
+     * Applies (opcode, argument) pairs from {@code commands}, see {@link BatchCommands}, in a single call. Display events
+     * are only emitted when {@code displayEvents} is set. The buffer is validated before anything is applied.
+     */
+    public BatchResult apply(IntBuffer commands, boolean displayEvents) {
+        validate(commands);
+
+        int chocoBarStockBefore = chocoBar.getStock();
+        int juiceBoxStockBefore = juiceBox.getStock();
+        long balanceBefore = coinBalance;
+        long coinsInserted = 0;
+        long revenue = 0;
+        int rejectedChoices = 0;
+        int count = commands.remaining() / 2;
+
+        muted = !displayEvents;
+        try {
+            while (commands.hasRemaining()) {
+                int opcode = commands.get();
+                int argument = commands.get();
+                switch (opcode) {
+                    case BatchCommands.INSERT_COINS:
+                        insertCoins(argument);
+                        coinsInserted += argument;
+                        break;
+                    case BatchCommands.CHOOSE: {
+                        int chocoBarStock = chocoBar.getStock();
+                        int juiceBoxStock = juiceBox.getStock();
+                        var action = VendingMachineAction.of(argument);
+                        choose(argument);
+                        long sale = (long) (chocoBarStock - chocoBar.getStock()) * chocoBar.getPrice()
+                                + (long) (juiceBoxStock - juiceBox.getStock()) * juiceBox.getPrice();
+                        revenue += sale;
+                        if (sale == 0
+                                && action != VendingMachineAction.RETURN_COINS
+                                && action != VendingMachineAction.CALL_SERVICE) {
+                            rejectedChoices++;
+                        }
+                        break;
+                    }
+                    default:
+                        returnCoins();
+                        break;
+                }
+            }
+        } finally {
+            muted = false;
+        }
+
+        int chocoBarsSold = chocoBarStockBefore - chocoBar.getStock();
+        int juiceBoxesSold = juiceBoxStockBefore - juiceBox.getStock();
+        long coinsReturned = balanceBefore + coinsInserted - revenue - coinBalance;
+        return new BatchResult(count, chocoBarsSold, juiceBoxesSold, coinsInserted, coinsReturned, rejectedChoices);
+    }
+
+    private static void validate(IntBuffer commands) {
+        if (commands.remaining() % 2 != 0) {
+            throw new IllegalArgumentException("Commands must be (opcode, argument) pairs");
+        }
+        for (int i = commands.position(); i < commands.limit(); i += 2) {
+            int opcode = commands.get(i);
+            if (opcode != BatchCommands.INSERT_COINS && opcode != BatchCommands.CHOOSE && opcode != BatchCommands.RETURN_COINS) {
+                throw new IllegalArgumentException(String.format("Unknown opcode %d at %d", opcode, i));
+            }
+        }
+    }
+
     public boolean isChocoBarAvailable() {
-        return chocoBarStock > 0;
+        return chocoBar.isAvailable();
     }
 
     public boolean isJuiceBoxAvailable() {
-        return juiceBoxStock > 0;
+        return juiceBox.isAvailable();
     }
 
-    void display(String message) {
-        machineDisplay.display(message);
+    void choiceUnavailable() {
+        metrics.choiceUnavailable();
+        display(DisplayEvent.CHOICE_UNAVAILABLE);
     }
 
-    private boolean stockAvailable() {
-        return isChocoBarAvailable() || isJuiceBoxAvailable();
+    void display(DisplayEvent event) {
+        display(event, null, 0, 0);
     }
 
-    public int getChocoBarStock() {
-        return chocoBarStock;
+    private void display(DisplayEvent event, String item, int first, int second) {
+        if (!muted) {
+            machineDisplay.display(event, item, first, second);
+        }
     }
 
-    private void setChocoBarStock(int value) {
-        this.chocoBarStock = value;
+    private boolean stockAvailable() {
+        return isChocoBarAvailable() || isJuiceBoxAvailable();
     }
 
-    public int getJuiceBoxStock() {
-        return juiceBoxStock;
+    public int getChocoBarStock() {
+        return chocoBar.getStock();
     }
 
-    private void setJuiceBoxStock(int value) {
-        this.juiceBoxStock = value;
+    public int getJuiceBoxStock() {
+        return juiceBox.getStock();
     }
 
     public int getCoinBalance() {
@@ -109,13 +189,38 @@ public class VendingMachine {
         return machineSerialId;
     }
 
+    MachineService getMachineService() {
+        return machineService;
+    }
+
     private final MachineDisplay machineDisplay;
+    private final MachineService machineService;
+    private final TransactionListener transactionListener;
+    private final MachineMetrics metrics;
 
     public VendingMachine() {
         this(new MachineDisplay());
     }
 
     public VendingMachine(MachineDisplay machineDisplay) {
+        this("xyz-109", MachineState.initial(), machineDisplay, MachineService.defaultService(), TransactionListener.NONE);
+    }
+
+    public VendingMachine(String machineSerialId, MachineState state, MachineDisplay machineDisplay,
+                          MachineService machineService, TransactionListener transactionListener) {
+        this(machineSerialId, state, machineDisplay, machineService, transactionListener, MachineMetrics.NONE);
+    }
+
+    public VendingMachine(String machineSerialId, MachineState state, MachineDisplay machineDisplay,
+                          MachineService machineService, TransactionListener transactionListener,
+                          MachineMetrics metrics) {
+        this.machineSerialId = machineSerialId;
+        this.coinBalance = state.getCoinBalance();
+        this.chocoBar = new ProductSlot(MachineState.CHOCO_BAR, "choco bar", CHOCO_BAR_PRICE, state.getChocoBarStock());
+        this.juiceBox = new ProductSlot(MachineState.JUICE_BOX, "juice box", JUICE_BOX_PRICE, state.getJuiceBoxStock());
         this.machineDisplay = machineDisplay;
+        this.machineService = machineService;
+        this.transactionListener = transactionListener;
+        this.metrics = metrics;
     }
 }
@@ -1,6 +1,7 @@
 package pl.pragmatists.complexity.machine.v7;
 
-import java.util.Arrays;
+import pl.pragmatists.complexity.machine.common.ChoiceTable;
+
 import java.util.function.Consumer;
 
 public enum VendingMachineAction {
@@ -8,7 +9,10 @@ public enum VendingMachineAction {
     SELL_JUICE_BOX(2, VendingMachine::sellJuiceBox),
     RETURN_COINS(0, VendingMachine::returnCoins),
     CALL_SERVICE(100, new ReportIssueStrategy()),
-    UNAVAILABLE(Integer.MIN_VALUE, vm -> vm.display("Choice unavailable"));
+    UNAVAILABLE(Integer.MIN_VALUE, VendingMachine::choiceUnavailable);
+
+    private static final ChoiceTable<VendingMachineAction> CHOICES =
+            ChoiceTable.of(values(), action -> action.choiceNumber, UNAVAILABLE);
 
     private final int choiceNumber;
     private final Consumer<VendingMachine> action;
@@ -23,9 +27,6 @@ public enum VendingMachineAction {
     }
 
     public static VendingMachineAction of(int code) {
-        return Arrays.stream(values())
-                .filter(v -> code == v.choiceNumber)
-                .findAny()
-                .orElse(UNAVAILABLE);
+        return CHOICES.get(code);
     }
 }
@@ -0,0 +1,19 @@
+package pl.pragmatists.complexity.machine.session;
+
+import pl.pragmatists.complexity.machine.v7.VendingMachine;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+
+/**
+ * Session executors running every customer session on a virtual thread of its own. Only
+ * built by the {@code java21} profile.
+ */
+public final class VirtualThreadSessions {
+    private VirtualThreadSessions() {
+    }
+
+    public static SessionExecutor open(List<VendingMachine> machines, HardwareEvents hardwareEvents) {
+        return new SessionExecutor(machines, Executors.newVirtualThreadPerTaskExecutor(), hardwareEvents);
+    }
+}
@@ -0,0 +1,39 @@
+package pl.pragmatists.complexity.machine;
+
+import org.junit.runners.Parameterized;
+import org.junit.runners.model.RunnerScheduler;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Parameterized} running the tests for each parameter on a thread of its own, so adding parameters doesn't add
+ * up wall time as long as there are cores for them. Tests for one parameter still run one after another.
+ */
+public class ParallelParameterized extends Parameterized {
+    public ParallelParameterized(Class<?> testClass) throws Throwable {
+        super(testClass);
+        setScheduler(new ThreadPoolScheduler());
+    }
+
+    private static class ThreadPoolScheduler implements RunnerScheduler {
+        private final ExecutorService executor = Executors.newFixedThreadPool(
+                Runtime.getRuntime().availableProcessors());
+
+        @Override
+        public void schedule(Runnable childStatement) {
+            executor.execute(childStatement);
+        }
+
+        @Override
+        public void finished() {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(10, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
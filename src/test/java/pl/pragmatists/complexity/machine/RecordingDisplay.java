@@ -0,0 +1,23 @@
+package pl.pragmatists.complexity.machine;
+
+import pl.pragmatists.complexity.machine.common.MachineDisplay;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Display remembering the messages instead of printing them. Unlike a mock it also sees messages rendered from a
+ * {@code DisplayEvent}, and it doesn't share any state between the threads tests run on.
+ */
+class RecordingDisplay extends MachineDisplay {
+    private final List<String> messages = new ArrayList<>();
+
+    @Override
+    public void display(String message) {
+        messages.add(message);
+    }
+
+    List<String> getMessages() {
+        return messages;
+    }
+}
@@ -1,15 +1,32 @@
 package pl.pragmatists.complexity.machine;
 
+import org.junit.AfterClass;
+import org.junit.Rule;
 import org.junit.Test;
-import org.mockito.ArgumentCaptor;
-import org.mockito.InOrder;
+import org.junit.rules.Stopwatch;
+import org.junit.runner.Description;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+import pl.pragmatists.complexity.machine.common.Machine;
 import pl.pragmatists.complexity.machine.common.MachineDisplay;
-// Choose the package with your VendingMachine implementation!
-import pl.pragmatists.complexity.machine.v1.VendingMachine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.*;
-import static org.mockito.Mockito.*;
 
+/**
+ * Runs against every version of the machine, each version on a thread of its own. Prints how long every test took per
+ * version when done.
+ */
+@RunWith(ParallelParameterized.class)
 public class VendingMachineTest {
     private static final int CHOCO_BAR_PRICE = 5;
     private static final int JUICE_BOX_PRICE = 7;
@@ -17,24 +34,54 @@ public class VendingMachineTest {
     private static final int SELL_JUICE_BOX = 2;
     private static final int RETURN_COINS = 0;
 
+    private static final ConcurrentMap<String, Map<String, Long>> TIMINGS = new ConcurrentHashMap<>();
+
+    @Parameters(name = "{0}")
+    public static List<String> versions() {
+        return new ArrayList<>(Machines.versions());
+    }
+
+    @Parameter
+    public String version;
+
+    @Rule
+    public final Stopwatch stopwatch = new Stopwatch() {
+        @Override
+        protected void finished(long nanos, Description description) {
+            String test = description.getMethodName().replaceFirst("\\[.*]$", "");
+            TIMINGS.computeIfAbsent(test, t -> new ConcurrentHashMap<>()).put(version, nanos);
+        }
+    };
+
+    @AfterClass
+    public static void printTimings() {
+        var report = new StringBuilder(String.format("%-50s", "Test (microseconds)"));
+        versions().forEach(version -> report.append(String.format("%12s", version)));
+        new TreeMap<>(TIMINGS).forEach((test, byVersion) -> {
+            report.append(String.format("%n%-50s", test));
+            versions().forEach(version -> report.append(String.format("%12d",
+                    TimeUnit.NANOSECONDS.toMicros(byVersion.getOrDefault(version, 0L)))));
+        });
+        System.out.println(report);
+    }
+
     @Test
     public void shouldDisplayInfoWhenUnavailableOptionsChosen() {
-        MachineDisplay display = mock(MachineDisplay.class);
-        VendingMachine vendingMachine = new VendingMachine(display);
+        var display = new RecordingDisplay();
+        var vendingMachine = newVendingMachine(display);
 
         vendingMachine.choose(57);
 
-        ArgumentCaptor<String> argCaptor = ArgumentCaptor.forClass(String.class);
-        verify(display).display(argCaptor.capture());
-        String argValue = argCaptor.getValue();
+        assertEquals(1, display.getMessages().size());
+        String argValue = display.getMessages().get(0);
         assertTrue(String.format("Was expecting different display message than '%s'", argValue),
                 argValue.equals("Choice unavailable") || argValue.equals("Choice 57 not available"));
     }
 
     @Test
     public void shouldSellChocoBarWhenEnoughCoins() {
-        MachineDisplay display = mock(MachineDisplay.class);
-        VendingMachine vendingMachine = new VendingMachine(display);
+        var display = new RecordingDisplay();
+        var vendingMachine = newVendingMachine(display);
         int initialStock = vendingMachine.getChocoBarStock();
 
         vendingMachine.insertCoins(CHOCO_BAR_PRICE);
@@ -48,8 +95,8 @@ public class VendingMachineTest {
 
     @Test
     public void shouldNotSellChocoBarWhenEnoughCoins() {
-        MachineDisplay display = mock(MachineDisplay.class);
-        VendingMachine vendingMachine = new VendingMachine(display);
+        var display = new RecordingDisplay();
+        var vendingMachine = newVendingMachine(display);
         int initialStock = vendingMachine.getChocoBarStock();
 
         vendingMachine.insertCoins(CHOCO_BAR_PRICE - 1);
@@ -63,8 +110,8 @@ public class VendingMachineTest {
 
     @Test
     public void shouldSellJuiceBoxWhenEnoughCoins() {
-        MachineDisplay display = mock(MachineDisplay.class);
-        VendingMachine vendingMachine = new VendingMachine(display);
+        var display = new RecordingDisplay();
+        var vendingMachine = newVendingMachine(display);
         int initialStock = vendingMachine.getJuiceBoxStock();
 
         vendingMachine.insertCoins(JUICE_BOX_PRICE);
@@ -78,8 +125,8 @@ public class VendingMachineTest {
 
     @Test
     public void shouldNotSellJuiceBoxWhenNotEnoughCoins() {
-        MachineDisplay display = mock(MachineDisplay.class);
-        VendingMachine vendingMachine = new VendingMachine(display);
+        var display = new RecordingDisplay();
+        var vendingMachine = newVendingMachine(display);
         int initialStock = vendingMachine.getJuiceBoxStock();
 
         vendingMachine.insertCoins(JUICE_BOX_PRICE - 1);
@@ -93,8 +140,8 @@ public class VendingMachineTest {
 
     @Test
     public void shouldReturnAllInsertedCoins() {
-        MachineDisplay display = mock(MachineDisplay.class);
-        VendingMachine vendingMachine = new VendingMachine(display);
+        var display = new RecordingDisplay();
+        var vendingMachine = newVendingMachine(display);
 
         vendingMachine.insertCoins(2);
         vendingMachine.insertCoins(3);
@@ -112,7 +159,7 @@ public class VendingMachineTest {
 
     @Test
     public void shouldKeepCorrectAmountOfCoinsAfterSellingStuff() {
-        VendingMachine vendingMachine = new VendingMachine(new MachineDisplay());
+        var vendingMachine = newVendingMachine(new RecordingDisplay());
         int initialChocoBarStock = vendingMachine.getChocoBarStock();
         int initialJuiceBoxStock = vendingMachine.getJuiceBoxStock();
 
@@ -131,7 +178,7 @@ public class VendingMachineTest {
 
     @Test
     public void shouldRunOutOfStockWhenSellingAllChocoBars() {
-        VendingMachine vendingMachine = new VendingMachine(new MachineDisplay());
+        var vendingMachine = newVendingMachine(new RecordingDisplay());
         int initialChocoBarStock = vendingMachine.getChocoBarStock();
 
         vendingMachine.insertCoins((CHOCO_BAR_PRICE * initialChocoBarStock) + (CHOCO_BAR_PRICE - 1));
@@ -147,7 +194,7 @@ public class VendingMachineTest {
 
     @Test
     public void shouldRunOutOfStockWhenSellingAllJuiceBoxes() {
-        VendingMachine vendingMachine = new VendingMachine(new MachineDisplay());
+        var vendingMachine = newVendingMachine(new RecordingDisplay());
         int initialChocoBarStock = vendingMachine.getChocoBarStock();
 
         vendingMachine.insertCoins((JUICE_BOX_PRICE * initialChocoBarStock) + (JUICE_BOX_PRICE - 1));
@@ -161,11 +208,11 @@ public class VendingMachineTest {
         assertEquals(0, vendingMachine.getJuiceBoxStock());
     }
 
-    private void verifyDisplay(MachineDisplay display, String... messages) {
-        InOrder inOrder = inOrder(display);
-        for (String message : messages) {
-            inOrder.verify(display).display(message);
-        }
-        inOrder.verifyNoMoreInteractions();
+    private void verifyDisplay(RecordingDisplay display, String... messages) {
+        assertEquals(Arrays.asList(messages), display.getMessages());
+    }
+
+    private Machine newVendingMachine(MachineDisplay display) {
+        return Machines.create(version, display);
     }
 }
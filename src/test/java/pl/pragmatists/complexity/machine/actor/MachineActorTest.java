@@ -0,0 +1,113 @@
+package pl.pragmatists.complexity.machine.actor;
+
+import org.junit.After;
+import org.junit.Test;
+import pl.pragmatists.complexity.machine.common.SilentMachineDisplay;
+import pl.pragmatists.complexity.machine.common.TransactionListener;
+import pl.pragmatists.complexity.machine.journal.MachineState;
+import pl.pragmatists.complexity.machine.v7.MachineService;
+import pl.pragmatists.complexity.machine.v7.VendingMachine;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+public class MachineActorTest {
+    private static final int SENDERS = 8;
+    private static final int SESSIONS_PER_SENDER = 1000;
+
+    private final ActorSystem actorSystem = new ActorSystem(2);
+
+    @After
+    public void tearDown() throws InterruptedException {
+        actorSystem.close();
+    }
+
+    @Test
+    public void shouldCompleteCommandsWithTheirResults() {
+        var actor = actorSystem.spawn(machine(5));
+
+        assertEquals(Integer.valueOf(10), actor.insertCoins(10).join());
+        assertTrue(actor.choose(1).join());
+        assertFalse(actor.choose(2).join());
+        assertEquals(Integer.valueOf(5), actor.returnCoins().join());
+    }
+
+    @Test
+    public void shouldApplyCommandsOfEachSenderInOrder() throws InterruptedException {
+        var machine = machine(SENDERS * SESSIONS_PER_SENDER);
+        var actor = actorSystem.spawn(machine);
+        var start = new CountDownLatch(1);
+        var sold = new ArrayList<List<CompletableFuture<Boolean>>>();
+        var senders = new ArrayList<Thread>();
+        for (int i = 0; i < SENDERS; i++) {
+            var futures = new ArrayList<CompletableFuture<Boolean>>();
+            sold.add(futures);
+            var sender = new Thread(() -> {
+                awaitQuietly(start);
+                for (int session = 0; session < SESSIONS_PER_SENDER; session++) {
+                    actor.insertCoins(5);
+                    futures.add(actor.choose(1));
+                }
+            });
+            senders.add(sender);
+            sender.start();
+        }
+
+        start.countDown();
+        for (var sender : senders) {
+            sender.join();
+        }
+        actor.returnCoins().join();
+
+        sold.stream().flatMap(List::stream).forEach(choice -> assertTrue(choice.join()));
+        assertEquals(0, machine.getChocoBarStock());
+        assertEquals(0, machine.getCoinBalance());
+    }
+
+    @Test
+    public void shouldFailOnlyTheCommandThatThrew() {
+        var actor = actorSystem.spawn(machine(5));
+
+        var failed = actor.send(machine -> {
+            throw new IllegalStateException("jammed");
+        });
+        var inserted = actor.insertCoins(5);
+
+        var exception = assertThrows(CompletionException.class, failed::join);
+        assertTrue(exception.getCause() instanceof IllegalStateException);
+        assertEquals(Integer.valueOf(5), inserted.join());
+    }
+
+    @Test
+    public void shouldApplyCommandsSentBeforeClosing() throws InterruptedException {
+        var machine = machine(MachineActor.BATCH_SIZE * 10);
+        var actor = actorSystem.spawn(machine);
+        for (int i = 0; i < MachineActor.BATCH_SIZE * 10; i++) {
+            actor.insertCoins(5);
+            actor.choose(1);
+        }
+
+        assertTrue(actorSystem.close(Duration.ofSeconds(5)));
+
+        assertEquals(0, machine.getChocoBarStock());
+    }
+
+    private static VendingMachine machine(int stock) {
+        return new VendingMachine("xyz-109", new MachineState(0, stock, stock), new SilentMachineDisplay(),
+                MachineService.defaultService(), TransactionListener.NONE);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
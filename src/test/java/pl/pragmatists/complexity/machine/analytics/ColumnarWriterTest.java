@@ -0,0 +1,113 @@
+package pl.pragmatists.complexity.machine.analytics;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import pl.pragmatists.complexity.machine.common.SilentMachineDisplay;
+import pl.pragmatists.complexity.machine.journal.RecordType;
+import pl.pragmatists.complexity.machine.journal.TransactionJournal;
+import pl.pragmatists.complexity.machine.v7.MachineService;
+import pl.pragmatists.complexity.machine.v7.VendingMachine;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.*;
+
+public class ColumnarWriterTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldReadBackRowsAcrossRowGroups() {
+        var random = new SplittableRandom(3);
+        var rows = new ArrayList<String>();
+        var out = new ByteArrayOutputStream();
+        try (var writer = new ColumnarWriter(out, 100)) {
+            long timestamp = 1_700_000_000_000L;
+            for (int i = 0; i < 1234; i++) {
+                timestamp += random.nextInt(5000);
+                var type = RecordType.values()[random.nextInt(3)];
+                String serial = "m-" + random.nextInt(7);
+                String product = type == RecordType.ITEM_SOLD ? "juice box" : "";
+                int amount = random.nextInt(20);
+                int balance = random.nextInt(Integer.MAX_VALUE);
+                writer.append(timestamp, serial, type, product, amount, balance);
+                rows.add(row(timestamp, serial, type, product, amount, balance));
+            }
+        }
+
+        var read = readBack(out.toByteArray());
+
+        assertEquals(rows, read);
+    }
+
+    @Test
+    public void shouldExportJournal() throws IOException {
+        try (var journal = TransactionJournal.open(folder.newFolder().toPath(), "xyz-109", 16)) {
+            var vendingMachine = new VendingMachine(journal.getMachineSerialId(), journal.recoverState(),
+                    new SilentMachineDisplay(), MachineService.defaultService(), journal);
+            vendingMachine.insertCoins(20);
+            vendingMachine.choose(1);
+            vendingMachine.choose(2);
+            vendingMachine.choose(0);
+            journal.commit();
+            var out = new ByteArrayOutputStream();
+            try (var writer = new ColumnarWriter(out, 3)) {
+                JournalExport.export(journal, writer);
+            }
+
+            var read = readBack(out.toByteArray());
+
+            assertEquals(4, read.size());
+            assertTrue(read.get(0).endsWith(",xyz-109,COINS_INSERTED,,20,20"));
+            assertTrue(read.get(1).endsWith(",xyz-109,ITEM_SOLD,choco bar,5,15"));
+            assertTrue(read.get(2).endsWith(",xyz-109,ITEM_SOLD,juice box,7,8"));
+            assertTrue(read.get(3).endsWith(",xyz-109,COINS_RETURNED,,8,0"));
+        }
+    }
+
+    @Test
+    public void shouldWriteSameRowsAsCsv() {
+        var out = new ByteArrayOutputStream();
+        try (var writer = new CsvWriter(out)) {
+            writer.append(1000, "xyz-109", RecordType.ITEM_SOLD, "choco bar", 5, 2);
+        }
+
+        assertEquals("timestamp,machine,type,product,amount,balance\n1000,xyz-109,ITEM_SOLD,choco bar,5,2\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void shouldBeSmallerThanCsv() {
+        var columnar = new ByteArrayOutputStream();
+        var csv = new ByteArrayOutputStream();
+        try (var columnarWriter = new ColumnarWriter(columnar, 4096); var csvWriter = new CsvWriter(csv)) {
+            for (int i = 0; i < 10_000; i++) {
+                long timestamp = 1_700_000_000_000L + i * 1000L;
+                columnarWriter.append(timestamp, "xyz-109", RecordType.ITEM_SOLD, "choco bar", 5, i % 50);
+                csvWriter.append(timestamp, "xyz-109", RecordType.ITEM_SOLD, "choco bar", 5, i % 50);
+            }
+        }
+
+        assertTrue(columnar.size() * 5 < csv.size());
+    }
+
+    private static List<String> readBack(byte[] bytes) {
+        var rows = new ArrayList<String>();
+        long count = ColumnarReader.read(new ByteArrayInputStream(bytes),
+                (timestamp, serial, type, product, amount, balance) ->
+                        rows.add(row(timestamp, serial, type, product, amount, balance)));
+        assertEquals(rows.size(), count);
+        return rows;
+    }
+
+    private static String row(long timestamp, String serial, RecordType type, String product, int amount, int balance) {
+        return timestamp + "," + serial + "," + type + "," + product + "," + amount + "," + balance;
+    }
+}
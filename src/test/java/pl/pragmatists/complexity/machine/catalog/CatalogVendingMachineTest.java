@@ -0,0 +1,72 @@
+package pl.pragmatists.complexity.machine.catalog;
+
+import org.junit.Test;
+import org.mockito.InOrder;
+import pl.pragmatists.complexity.machine.common.DisplayEvent;
+import pl.pragmatists.complexity.machine.common.MachineDisplay;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class CatalogVendingMachineTest {
+    @Test
+    public void shouldBehaveLikeTwoProductMachineWithDefaultCatalog() {
+        MachineDisplay display = mock(MachineDisplay.class);
+        VendingMachine vendingMachine = new VendingMachine(display);
+
+        vendingMachine.insertCoins(6);
+        vendingMachine.choose(1);
+        vendingMachine.choose(2);
+        vendingMachine.choose(3);
+        vendingMachine.choose(0);
+
+        assertEquals(4, vendingMachine.getStock(1));
+        assertEquals(5, vendingMachine.getStock(2));
+        InOrder inOrder = inOrder(display);
+        inOrder.verify(display).display(DisplayEvent.COINS_INSERTED, null, 6, 6);
+        inOrder.verify(display).display(DisplayEvent.ITEM_SOLD, "choco bar", 1, 0);
+        inOrder.verify(display).display(DisplayEvent.NOT_ENOUGH_COINS, "juice box", 7, 1);
+        inOrder.verify(display).display(DisplayEvent.CHOICE_UNAVAILABLE, null, 0, 0);
+        inOrder.verify(display).display(DisplayEvent.COINS_RETURNED, null, 1, 0);
+        inOrder.verifyNoMoreInteractions();
+    }
+
+    @Test
+    public void shouldSellFromAnySlotOfLargeCatalog() {
+        var catalog = new Catalog();
+        for (int slot = 1; slot <= 60; slot++) {
+            catalog.add(slot, new Product("product " + slot, slot), 1);
+        }
+        MachineDisplay display = mock(MachineDisplay.class);
+        VendingMachine vendingMachine = new VendingMachine(catalog, display);
+
+        vendingMachine.insertCoins(100);
+        vendingMachine.choose(42);
+        vendingMachine.choose(42);
+
+        assertEquals(0, vendingMachine.getStock(42));
+        assertEquals(58, vendingMachine.getCoinBalance());
+        verify(display).display(DisplayEvent.ITEM_SOLD, "product 42", 58, 0);
+        verify(display).display(DisplayEvent.ITEM_UNAVAILABLE, "product 42", 0, 0);
+    }
+
+    @Test
+    public void shouldReturnCoinsOnceLastSlotIsEmpty() {
+        var catalog = new Catalog().add(7, new Product("apple", 3), 1);
+        MachineDisplay display = mock(MachineDisplay.class);
+        VendingMachine vendingMachine = new VendingMachine(catalog, display);
+
+        vendingMachine.insertCoins(5);
+        vendingMachine.choose(7);
+        vendingMachine.choose(7);
+
+        assertEquals(0, vendingMachine.getCoinBalance());
+        verify(display).display(DisplayEvent.NO_ITEMS_LEFT, null, 0, 0);
+        verify(display).display(DisplayEvent.COINS_RETURNED, null, 2, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAllowSlotClashingWithServiceCall() {
+        new Catalog().add(100, new Product("apple", 3), 1);
+    }
+}
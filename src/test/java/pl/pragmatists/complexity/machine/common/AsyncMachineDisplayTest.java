@@ -0,0 +1,123 @@
+package pl.pragmatists.complexity.machine.common;
+
+import org.junit.Test;
+import pl.pragmatists.complexity.machine.common.AsyncMachineDisplay.OverflowPolicy;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class AsyncMachineDisplayTest {
+    @Test
+    public void shouldWriteAllMessagesInOrderBeforeClosing() throws Exception {
+        var output = new ByteArrayOutputStream();
+        var display = new AsyncMachineDisplay(Channels.newChannel(output), 4, OverflowPolicy.BLOCK);
+
+        display.display(DisplayEvent.COINS_INSERTED, null, 5, 5);
+        display.display("Choice unavailable");
+        for (int i = 0; i < 10; i++) {
+            display.display(DisplayEvent.COINS_RETURNED, null, i, 0);
+        }
+        display.close();
+
+        var lines = lines(output);
+        assertEquals(12, lines.size());
+        assertEquals("Inserted 5 coin(s), current balance: 5", lines.get(0));
+        assertEquals("Choice unavailable", lines.get(1));
+        assertEquals("Returned 9 coin(s)", lines.get(11));
+        assertEquals(0, display.getDroppedCount());
+    }
+
+    @Test
+    public void shouldDropNewestMessagesWhenFull() throws Exception {
+        var channel = new StalledChannel();
+        var display = new AsyncMachineDisplay(channel, 2, OverflowPolicy.DROP_NEWEST);
+
+        display.display("first");
+        channel.awaitFirstWrite();
+        display.display("second");
+        display.display("third");
+        display.display("fourth");
+        channel.release();
+        display.close();
+
+        assertEquals(List.of("first", "second", "third"), lines(channel.output));
+        assertEquals(1, display.getDroppedCount());
+    }
+
+    @Test
+    public void shouldDropOldestMessagesWhenFull() throws Exception {
+        var channel = new StalledChannel();
+        var display = new AsyncMachineDisplay(channel, 2, OverflowPolicy.DROP_OLDEST);
+
+        display.display("first");
+        channel.awaitFirstWrite();
+        display.display("second");
+        display.display("third");
+        display.display("fourth");
+        channel.release();
+        display.close();
+
+        assertEquals(List.of("first", "third", "fourth"), lines(channel.output));
+        assertEquals(1, display.getDroppedCount());
+    }
+
+    @Test
+    public void shouldCountMessagesDisplayedAfterClosing() throws Exception {
+        var display = new AsyncMachineDisplay(Channels.newChannel(new ByteArrayOutputStream()), 2, OverflowPolicy.BLOCK);
+        display.close();
+
+        display.display("too late");
+
+        assertEquals(1, display.getDroppedCount());
+    }
+
+    private static List<String> lines(ByteArrayOutputStream output) {
+        return output.toString(StandardCharsets.UTF_8).lines().collect(Collectors.toList());
+    }
+
+    private static class StalledChannel implements WritableByteChannel {
+        private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        private final CountDownLatch firstWrite = new CountDownLatch(1);
+        private final CountDownLatch released = new CountDownLatch(1);
+
+        @Override
+        public int write(ByteBuffer source) {
+            firstWrite.countDown();
+            try {
+                released.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            int length = source.remaining();
+            byte[] bytes = new byte[length];
+            source.get(bytes);
+            output.write(bytes, 0, length);
+            return length;
+        }
+
+        void awaitFirstWrite() throws InterruptedException {
+            firstWrite.await();
+        }
+
+        void release() {
+            released.countDown();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package pl.pragmatists.complexity.machine.common;
+
+import org.junit.Test;
+import pl.pragmatists.complexity.machine.v7.VendingMachineAction;
+
+import static org.junit.Assert.*;
+
+public class ChoiceTableTest {
+    @Test
+    public void shouldResolveDenseAndSparseCodes() {
+        assertEquals(VendingMachineAction.RETURN_COINS, VendingMachineAction.of(0));
+        assertEquals(VendingMachineAction.SELL_CHOCO_BAR, VendingMachineAction.of(1));
+        assertEquals(VendingMachineAction.SELL_JUICE_BOX, VendingMachineAction.of(2));
+        assertEquals(VendingMachineAction.CALL_SERVICE, VendingMachineAction.of(100));
+    }
+
+    @Test
+    public void shouldFallBackForUnknownCodes() {
+        assertEquals(VendingMachineAction.UNAVAILABLE, VendingMachineAction.of(3));
+        assertEquals(VendingMachineAction.UNAVAILABLE, VendingMachineAction.of(-1));
+        assertEquals(VendingMachineAction.UNAVAILABLE, VendingMachineAction.of(101));
+        assertEquals(VendingMachineAction.UNAVAILABLE, VendingMachineAction.of(Integer.MIN_VALUE));
+    }
+
+    @Test
+    public void shouldResolveCollidingSparseCodes() {
+        Integer[] codes = {1000, 2000, 3000, 4000, 5000, -7};
+        ChoiceTable<Integer> table = ChoiceTable.of(codes, Integer::intValue, 0);
+
+        for (Integer code : codes) {
+            assertEquals(code, table.get(code));
+        }
+        assertEquals(Integer.valueOf(0), table.get(6000));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectDuplicateCodes() {
+        ChoiceTable.of(new Integer[]{100, 100}, Integer::intValue, 0);
+    }
+}
@@ -0,0 +1,66 @@
+package pl.pragmatists.complexity.machine.common;
+
+import org.junit.Test;
+import pl.pragmatists.complexity.machine.v7.VendingMachine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class DisplayEventTest {
+    @Test
+    public void shouldRenderSameTextAsStringFormat() {
+        for (int balance : new int[]{0, 7, -3, 1234567}) {
+            assertEquals(String.format("Sold %s, current balance: %d", "choco bar", balance),
+                    DisplayEvent.ITEM_SOLD.render("choco bar", balance, 0));
+            assertEquals(String.format("Can't sell %s (price: %d), current balance: %d", "juice box", 7, balance),
+                    DisplayEvent.NOT_ENOUGH_COINS.render("juice box", 7, balance));
+            assertEquals(String.format("Inserted %d coin(s), current balance: %d", 3, balance),
+                    DisplayEvent.COINS_INSERTED.render(null, 3, balance));
+            assertEquals(String.format("Returned %d coin(s)", balance),
+                    DisplayEvent.COINS_RETURNED.render(null, balance, 0));
+        }
+        assertEquals(String.format("%s unavailable", "choco bar"), DisplayEvent.ITEM_UNAVAILABLE.render("choco bar", 0, 0));
+    }
+
+    @Test
+    public void shouldDisplayRenderedEventsOfVendingMachine() {
+        var display = new RecordingDisplay();
+        var vendingMachine = new VendingMachine(display);
+
+        vendingMachine.insertCoins(6);
+        vendingMachine.choose(1);
+        vendingMachine.choose(2);
+        vendingMachine.choose(57);
+        vendingMachine.choose(0);
+
+        assertEquals(List.of(
+                "Inserted 6 coin(s), current balance: 6",
+                "Sold choco bar, current balance: 1",
+                "Can't sell juice box (price: 7), current balance: 1",
+                "Choice unavailable",
+                "Returned 1 coin(s)"), display.messages);
+    }
+
+    @Test
+    public void shouldPassOnEveryNthEvent() {
+        var display = new RecordingDisplay();
+        var sampling = new SamplingMachineDisplay(display, 2);
+
+        for (int amount = 1; amount <= 5; amount++) {
+            sampling.display(DisplayEvent.COINS_RETURNED, null, amount, 0);
+        }
+
+        assertEquals(List.of("Returned 1 coin(s)", "Returned 3 coin(s)", "Returned 5 coin(s)"), display.messages);
+    }
+
+    private static class RecordingDisplay extends MachineDisplay {
+        private final List<String> messages = new ArrayList<>();
+
+        @Override
+        public void display(String message) {
+            messages.add(message);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package pl.pragmatists.complexity.machine.common;
+
+import org.junit.Test;
+import pl.pragmatists.complexity.machine.v7.VendingMachine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MessageCacheTest {
+    @Test
+    public void shouldReturnSameStringForRepeatedMessage() {
+        var cache = new MessageCache(16);
+
+        var first = cache.render(DisplayEvent.ITEM_SOLD, "choco bar", 5, 0);
+        var second = cache.render(DisplayEvent.ITEM_SOLD, "choco bar", 5, 0);
+
+        assertEquals("Sold choco bar, current balance: 5", first);
+        assertSame(first, second);
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(0.5, cache.getHitRate(), 0.0);
+    }
+
+    @Test
+    public void shouldTellMessagesApartByEveryArgument() {
+        var cache = new MessageCache(16);
+
+        assertEquals("Sold choco bar, current balance: 5", cache.render(DisplayEvent.ITEM_SOLD, "choco bar", 5, 0));
+        assertEquals("Sold juice box, current balance: 5", cache.render(DisplayEvent.ITEM_SOLD, "juice box", 5, 0));
+        assertEquals("Sold juice box, current balance: 6", cache.render(DisplayEvent.ITEM_SOLD, "juice box", 6, 0));
+        assertEquals("Returned 5 coin(s)", cache.render(DisplayEvent.COINS_RETURNED, null, 5, 0));
+        assertEquals("Inserted 5 coin(s), current balance: 7", cache.render(DisplayEvent.COINS_INSERTED, null, 5, 7));
+        assertEquals(0, cache.getHits());
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedMessage() {
+        var cache = new MessageCache(4);
+        for (int balance = 0; balance < 4; balance++) {
+            cache.render(DisplayEvent.COINS_RETURNED, null, balance, 0);
+        }
+        var kept = cache.render(DisplayEvent.COINS_RETURNED, null, 0, 0);
+
+        cache.render(DisplayEvent.COINS_RETURNED, null, 4, 0);
+
+        assertSame(kept, cache.render(DisplayEvent.COINS_RETURNED, null, 0, 0));
+        assertEquals(1, cache.getEvictions());
+        cache.render(DisplayEvent.COINS_RETURNED, null, 1, 0);
+        assertEquals(2, cache.getEvictions());
+    }
+
+    @Test
+    public void shouldKeepCapacityBounded() {
+        var cache = new MessageCache(100);
+
+        for (int balance = 0; balance < 10_000; balance++) {
+            cache.render(DisplayEvent.COINS_RETURNED, null, balance, 0);
+        }
+
+        assertEquals(128, cache.getCapacity());
+        assertEquals(10_000 - 128, cache.getEvictions());
+    }
+
+    @Test
+    public void shouldDisplaySameTextAsUncachedMachine() {
+        var cached = new RecordingDisplay();
+        var plain = new RecordingDisplay();
+        var cachingDisplay = new CachingMachineDisplay(cached);
+
+        for (var display : List.of(cachingDisplay, plain)) {
+            var vendingMachine = new VendingMachine(display);
+            for (int round = 0; round < 3; round++) {
+                vendingMachine.insertCoins(7);
+                vendingMachine.choose(1);
+                vendingMachine.choose(2);
+                vendingMachine.choose(0);
+            }
+        }
+
+        assertEquals(plain.messages, cached.messages);
+        assertTrue(cachingDisplay.getCache().getHits() > 0);
+    }
+
+    private static class RecordingDisplay extends MachineDisplay {
+        private final List<String> messages = new ArrayList<>();
+
+        @Override
+        public void display(String message) {
+            messages.add(message);
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package pl.pragmatists.complexity.machine.concurrent;
+
+import org.junit.Test;
+import pl.pragmatists.complexity.machine.common.DisplayEvent;
+import pl.pragmatists.complexity.machine.common.MachineDisplay;
+import pl.pragmatists.complexity.machine.common.TransactionListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.Assert.*;
+
+public class VendingMachineStressTest {
+    private static final int CHOCO_BAR_PRICE = 5;
+    private static final int JUICE_BOX_PRICE = 7;
+    private static final int ROUNDS = 200;
+    private static final int OPERATOR_ROUNDS = 20;
+
+    @Test
+    public void shouldNeitherOversellNorLoseCoins() throws InterruptedException {
+        for (int round = 0; round < ROUNDS; round++) {
+            var display = new CountingDisplay();
+            var vendingMachine = new VendingMachine(display);
+            var coinsInserted = new LongAdder();
+
+            runConcurrently(
+                    () -> insertCoins(vendingMachine, coinsInserted),
+                    () -> insertCoins(vendingMachine, coinsInserted),
+                    () -> choose(vendingMachine, 1),
+                    () -> choose(vendingMachine, 2),
+                    () -> choose(vendingMachine, 1),
+                    () -> choose(vendingMachine, 2),
+                    () -> returnCoins(vendingMachine));
+
+            int chocoBarsSold = 5 - vendingMachine.getChocoBarStock();
+            int juiceBoxesSold = 5 - vendingMachine.getJuiceBoxStock();
+            assertEquals(display.chocoBarsSold.sum(), chocoBarsSold);
+            assertEquals(display.juiceBoxesSold.sum(), juiceBoxesSold);
+            assertEquals(coinsInserted.sum(),
+                    vendingMachine.getCoinBalance() + display.coinsReturned.sum()
+                            + chocoBarsSold * CHOCO_BAR_PRICE + juiceBoxesSold * JUICE_BOX_PRICE);
+        }
+    }
+
+    @Test
+    public void shouldSellEachItemOnlyOnceWhenRacingForLastOne() throws InterruptedException {
+        for (int round = 0; round < ROUNDS; round++) {
+            var display = new CountingDisplay();
+            var vendingMachine = new VendingMachine(display);
+            vendingMachine.insertCoins(1000);
+
+            runConcurrently(
+                    () -> choose(vendingMachine, 1),
+                    () -> choose(vendingMachine, 1),
+                    () -> choose(vendingMachine, 1),
+                    () -> choose(vendingMachine, 1));
+
+            assertEquals(0, vendingMachine.getChocoBarStock());
+            assertEquals(5, display.chocoBarsSold.sum());
+            assertEquals(1000 - 5 * CHOCO_BAR_PRICE, vendingMachine.getCoinBalance());
+        }
+    }
+
+    @Test
+    public void shouldChargePriceInEffectWhileOperatorRestocksAndReprices() throws InterruptedException {
+        for (int round = 0; round < ROUNDS; round++) {
+            var ledger = new Ledger();
+            var vendingMachine = new VendingMachine(new CountingDisplay(), ledger);
+            var coinsInserted = new LongAdder();
+
+            runConcurrently(
+                    () -> insertCoins(vendingMachine, coinsInserted),
+                    () -> insertCoins(vendingMachine, coinsInserted),
+                    () -> choose(vendingMachine, ledger, 1),
+                    () -> choose(vendingMachine, ledger, 2),
+                    () -> returnCoins(vendingMachine),
+                    () -> operate(vendingMachine, ledger));
+
+            assertEquals(List.of(), ledger.wrongPrices);
+            assertEquals(5 + OPERATOR_ROUNDS - ledger.chocoBarsSold.sum(), vendingMachine.getChocoBarStock());
+            assertEquals(5 + OPERATOR_ROUNDS - ledger.juiceBoxesSold.sum(), vendingMachine.getJuiceBoxStock());
+            assertEquals(coinsInserted.sum(),
+                    vendingMachine.getCoinBalance() + ledger.coinsReturned.sum() + ledger.revenue.sum());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotRestockBeyondCapacity() {
+        new VendingMachine(new CountingDisplay()).restock(0xFFFF, 0);
+    }
+
+    /**
+     * Every price change raises both prices by one, so the price a sale was charged for tells its generation.
+     */
+    private static void operate(VendingMachine vendingMachine, Ledger ledger) {
+        for (int generation = 1; generation <= OPERATOR_ROUNDS; generation++) {
+            vendingMachine.changePrices(CHOCO_BAR_PRICE + generation, JUICE_BOX_PRICE + generation);
+            ledger.published.set(generation);
+            vendingMachine.restock(1, 1);
+        }
+    }
+
+    private static void insertCoins(VendingMachine vendingMachine, LongAdder coinsInserted) {
+        for (int i = 0; i < 50; i++) {
+            vendingMachine.insertCoins(1);
+            coinsInserted.increment();
+        }
+    }
+
+    private static void choose(VendingMachine vendingMachine, int choice) {
+        for (int i = 0; i < 50; i++) {
+            vendingMachine.choose(choice);
+        }
+    }
+
+    private static void choose(VendingMachine vendingMachine, Ledger ledger, int choice) {
+        for (int i = 0; i < 50; i++) {
+            ledger.choosing();
+            vendingMachine.choose(choice);
+        }
+    }
+
+    private static void returnCoins(VendingMachine vendingMachine) {
+        for (int i = 0; i < 10; i++) {
+            vendingMachine.returnCoins();
+        }
+    }
+
+    private static void runConcurrently(Runnable... tasks) throws InterruptedException {
+        var start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (Runnable task : tasks) {
+            var thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                task.run();
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    private static class Ledger implements TransactionListener {
+        private final LongAdder chocoBarsSold = new LongAdder();
+        private final LongAdder juiceBoxesSold = new LongAdder();
+        private final LongAdder revenue = new LongAdder();
+        private final LongAdder coinsReturned = new LongAdder();
+        private final List<String> wrongPrices = new CopyOnWriteArrayList<>();
+        private final AtomicInteger published = new AtomicInteger();
+        private final ThreadLocal<Integer> oldestAllowed = ThreadLocal.withInitial(() -> 0);
+
+        /**
+         * Called before each choice: from now on, the thread may not be charged a price older than the last published
+         * one, nor older than one it has already paid.
+         */
+        void choosing() {
+            oldestAllowed.set(Math.max(oldestAllowed.get(), published.get()));
+        }
+
+        @Override
+        public void itemSold(int product, int price, int balance) {
+            int generation;
+            if (product == 1) {
+                chocoBarsSold.increment();
+                generation = price - CHOCO_BAR_PRICE;
+            } else {
+                juiceBoxesSold.increment();
+                generation = price - JUICE_BOX_PRICE;
+            }
+            if (generation < 0 || generation > OPERATOR_ROUNDS) {
+                wrongPrices.add(String.format("product %d sold for %d", product, price));
+            } else if (generation < oldestAllowed.get()) {
+                wrongPrices.add(String.format("product %d sold for %d of generation %d, generation %d was in effect",
+                        product, price, generation, oldestAllowed.get()));
+            } else {
+                oldestAllowed.set(generation);
+            }
+            revenue.add(price);
+        }
+
+        @Override
+        public void coinsReturned(int amount) {
+            coinsReturned.add(amount);
+        }
+    }
+
+    private static class CountingDisplay extends MachineDisplay {
+        private final LongAdder chocoBarsSold = new LongAdder();
+        private final LongAdder juiceBoxesSold = new LongAdder();
+        private final LongAdder coinsReturned = new LongAdder();
+
+        @Override
+        public void display(String message) {
+        }
+
+        @Override
+        public void display(DisplayEvent event, String item, int first, int second) {
+            if (event == DisplayEvent.ITEM_SOLD) {
+                ("choco bar".equals(item) ? chocoBarsSold : juiceBoxesSold).increment();
+            } else if (event == DisplayEvent.COINS_RETURNED) {
+                coinsReturned.add(first);
+            }
+        }
+    }
+}
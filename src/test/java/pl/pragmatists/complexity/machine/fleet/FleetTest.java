@@ -0,0 +1,73 @@
+package pl.pragmatists.complexity.machine.fleet;
+
+import org.junit.Test;
+import pl.pragmatists.complexity.machine.common.SilentMachineDisplay;
+import pl.pragmatists.complexity.machine.v7.MachineService;
+
+import static org.junit.Assert.*;
+
+public class FleetTest {
+    @Test
+    public void shouldKeepSeparateStatePerMachine() {
+        var fleet = new Fleet(2, new SilentMachineDisplay(), MachineService.defaultService());
+        fleet.register("abc-1");
+        fleet.register("abc-2");
+
+        fleet.insertCoins("abc-1", 12);
+        fleet.choose("abc-1", 1);
+        fleet.insertCoins("abc-2", 7);
+        fleet.choose("abc-2", 2);
+
+        assertEquals(7, fleet.getCoinBalance("abc-1"));
+        assertEquals(4, fleet.getChocoBarStock("abc-1"));
+        assertEquals(5, fleet.getJuiceBoxStock("abc-1"));
+        assertEquals(0, fleet.getCoinBalance("abc-2"));
+        assertEquals(5, fleet.getChocoBarStock("abc-2"));
+        assertEquals(4, fleet.getJuiceBoxStock("abc-2"));
+    }
+
+    @Test
+    public void shouldGrowBeyondExpectedSize() {
+        var fleet = new Fleet(1, new SilentMachineDisplay(), MachineService.defaultService());
+        for (int i = 0; i < 10_000; i++) {
+            fleet.register("xyz-" + i);
+        }
+
+        fleet.insertCoins("xyz-9999", 3);
+
+        assertEquals(10_000, fleet.size());
+        assertEquals(3, fleet.getCoinBalance("xyz-9999"));
+        assertEquals(0, fleet.getCoinBalance("xyz-0"));
+    }
+
+    @Test
+    public void shouldSellAgainAfterRestock() {
+        var fleet = new Fleet(1, new SilentMachineDisplay(), MachineService.defaultService());
+        fleet.register("xyz-109");
+        fleet.insertCoins("xyz-109", 30);
+        for (int i = 0; i < 5; i++) {
+            fleet.choose("xyz-109", 1);
+        }
+
+        fleet.restock("xyz-109", 2, 0);
+        fleet.choose("xyz-109", 1);
+
+        assertEquals(1, fleet.getChocoBarStock("xyz-109"));
+        assertEquals(0, fleet.getCoinBalance("xyz-109"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectUnknownMachine() {
+        var fleet = new Fleet(1, new SilentMachineDisplay(), MachineService.defaultService());
+
+        fleet.choose("xyz-109", 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectDuplicateSerial() {
+        var fleet = new Fleet(1, new SilentMachineDisplay(), MachineService.defaultService());
+        fleet.register("xyz-109");
+
+        fleet.register("xyz-109");
+    }
+}
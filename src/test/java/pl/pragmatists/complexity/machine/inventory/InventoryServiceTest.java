@@ -0,0 +1,148 @@
+package pl.pragmatists.complexity.machine.inventory;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.Assert.*;
+
+public class InventoryServiceTest {
+    private static final int CHOCO_BAR = 1;
+    private static final int JUICE_BOX = 2;
+
+    @Test
+    public void shouldSellOnlyWhatIsInStock() {
+        var inventory = new InventoryService(10, 2, 4);
+        inventory.restock(3, CHOCO_BAR, 2);
+
+        assertTrue(inventory.trySell(3, CHOCO_BAR));
+        assertTrue(inventory.trySell(3, CHOCO_BAR));
+        assertFalse(inventory.trySell(3, CHOCO_BAR));
+        assertFalse(inventory.trySell(3, JUICE_BOX));
+        assertEquals(0, inventory.getStock(3, CHOCO_BAR));
+    }
+
+    @Test
+    public void shouldSnapshotRangeAcrossShards() {
+        var inventory = new InventoryService(10, 2, 4);
+        inventory.restock(0, 10, JUICE_BOX, 5);
+        inventory.restock(2, 7, CHOCO_BAR, 3);
+        inventory.trySell(4, CHOCO_BAR);
+
+        var snapshot = inventory.snapshot(1, 8);
+
+        assertEquals(0, snapshot.getStock(1, CHOCO_BAR));
+        assertEquals(2, snapshot.getStock(4, CHOCO_BAR));
+        assertEquals(3, snapshot.getStock(6, CHOCO_BAR));
+        assertEquals(14, snapshot.getTotal(CHOCO_BAR));
+        assertEquals(35, snapshot.getTotal(JUICE_BOX));
+        assertEquals(4, inventory.getShards());
+    }
+
+    @Test
+    public void shouldLeaveRangeUntouchedWhenRestockOverflows() {
+        var inventory = new InventoryService(10, 2, 4);
+        inventory.restock(0, 10, CHOCO_BAR, 1);
+        inventory.restock(6, CHOCO_BAR, Integer.MAX_VALUE - 1);
+
+        try {
+            inventory.restock(2, 9, CHOCO_BAR, 5);
+            fail("Overflow accepted");
+        } catch (ArithmeticException expected) {
+        }
+
+        var snapshot = inventory.snapshot(0, 10);
+        assertEquals(1, snapshot.getStock(2, CHOCO_BAR));
+        assertEquals(Integer.MAX_VALUE, snapshot.getStock(6, CHOCO_BAR));
+        assertEquals(1, snapshot.getStock(8, CHOCO_BAR));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectUnknownProduct() {
+        new InventoryService(10, 2, 4).trySell(0, 3);
+    }
+
+    @Test
+    public void shouldNeverSellMoreThanWasRestocked() throws InterruptedException {
+        var inventory = new InventoryService(64, 2, 8);
+        var sold = new LongAdder();
+        var restocked = new LongAdder();
+
+        runConcurrently(8, thread -> {
+            for (int i = 0; i < 20_000; i++) {
+                int machine = (i * 7 + thread) % 64;
+                if (thread % 2 == 0 && i % 10 == 0) {
+                    inventory.restock(machine, CHOCO_BAR, 3);
+                    restocked.add(3);
+                } else if (inventory.trySell(machine, CHOCO_BAR)) {
+                    sold.increment();
+                }
+            }
+        });
+
+        var snapshot = inventory.snapshot(0, 64);
+        assertEquals(restocked.sum() - sold.sum(), snapshot.getTotal(CHOCO_BAR));
+        for (int machine = 0; machine < 64; machine++) {
+            assertTrue(snapshot.getStock(machine, CHOCO_BAR) >= 0);
+        }
+    }
+
+    @Test
+    public void shouldSnapshotBulkRestockAllOrNothing() throws InterruptedException {
+        var inventory = new InventoryService(100, 1, 16);
+        var done = new AtomicBoolean();
+        var inconsistent = new AtomicReference<String>();
+
+        var restocker = new Thread(() -> {
+            for (int round = 0; round < 2_000; round++) {
+                inventory.restock(0, 100, CHOCO_BAR, 1);
+            }
+            done.set(true);
+        });
+        restocker.start();
+        while (!done.get()) {
+            var snapshot = inventory.snapshot(0, 100);
+            int first = snapshot.getStock(0, CHOCO_BAR);
+            for (int machine = 1; machine < 100; machine++) {
+                if (snapshot.getStock(machine, CHOCO_BAR) != first) {
+                    inconsistent.set(String.format("machine 0 had %d, machine %d had %d",
+                            first, machine, snapshot.getStock(machine, CHOCO_BAR)));
+                }
+            }
+        }
+        restocker.join();
+
+        assertNull(inconsistent.get());
+    }
+
+    private interface Worker {
+        void run(int thread);
+    }
+
+    private static void runConcurrently(int threads, Worker worker) throws InterruptedException {
+        var start = new CountDownLatch(1);
+        List<Thread> started = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            int thread = i;
+            var t = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                worker.run(thread);
+            });
+            t.start();
+            started.add(t);
+        }
+        start.countDown();
+        for (var t : started) {
+            t.join();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package pl.pragmatists.complexity.machine.journal;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import pl.pragmatists.complexity.machine.common.SilentMachineDisplay;
+import pl.pragmatists.complexity.machine.v7.MachineService;
+import pl.pragmatists.complexity.machine.v7.VendingMachine;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.*;
+
+public class MachineStoreTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldRecoverFromSnapshotAndJournalTail() throws Exception {
+        Path directory = folder.newFolder().toPath();
+        try (var store = MachineStore.open(directory, "xyz-109", 8, 3)) {
+            var vendingMachine = new VendingMachine(store.getMachineSerialId(), store.getRecoveredState(),
+                    new SilentMachineDisplay(), MachineService.defaultService(), store);
+            vendingMachine.insertCoins(20);
+            vendingMachine.choose(1);
+            vendingMachine.choose(2);
+            vendingMachine.choose(0);
+            vendingMachine.insertCoins(6);
+        }
+
+        var snapshot = MachineSnapshot.readFrom(directory.resolve(MachineStore.SNAPSHOT_FILE)).orElseThrow();
+        assertEquals(3, snapshot.getJournalIndex());
+
+        try (var store = MachineStore.open(directory, "xyz-109", 8, 3)) {
+            var state = store.getRecoveredState();
+
+            assertEquals(6, state.getCoinBalance());
+            assertEquals(4, state.getChocoBarStock());
+            assertEquals(4, state.getJuiceBoxStock());
+        }
+    }
+
+    @Test
+    public void shouldReplayWholeJournalWhenSnapshotIsUnreadable() throws Exception {
+        Path directory = folder.newFolder().toPath();
+        try (var store = MachineStore.open(directory, "xyz-109", 8, 3)) {
+            var vendingMachine = new VendingMachine(store.getMachineSerialId(), store.getRecoveredState(),
+                    new SilentMachineDisplay(), MachineService.defaultService(), store);
+            vendingMachine.insertCoins(20);
+            vendingMachine.choose(1);
+            vendingMachine.choose(2);
+            vendingMachine.choose(0);
+            vendingMachine.insertCoins(6);
+        }
+        Files.write(directory.resolve(MachineStore.SNAPSHOT_FILE), new byte[]{1, 2, 3});
+
+        try (var store = MachineStore.open(directory, "xyz-109", 8, 3)) {
+            var state = store.getRecoveredState();
+
+            assertEquals(6, state.getCoinBalance());
+            assertEquals(4, state.getChocoBarStock());
+            assertEquals(4, state.getJuiceBoxStock());
+        }
+    }
+
+    @Test
+    public void shouldDropJournalSegmentsCoveredBySnapshot() throws Exception {
+        Path directory = folder.newFolder().toPath();
+        int transactions = 3 * TransactionJournal.RECORDS_PER_SEGMENT;
+        try (var store = MachineStore.open(directory, "xyz-109", 1024, TransactionJournal.RECORDS_PER_SEGMENT)) {
+            for (int i = 0; i < transactions / 2; i++) {
+                store.coinsInserted(1, 1);
+                store.coinsReturned(1);
+            }
+            store.coinsInserted(4, 4);
+        }
+
+        assertFalse(Files.exists(directory.resolve("000000000000.segment")));
+        try (var journal = TransactionJournal.open(directory, "xyz-109", 1)) {
+            assertEquals(transactions, journal.firstIndex());
+            assertEquals(transactions + 1, journal.nextIndex());
+        }
+        try (var store = MachineStore.open(directory, "xyz-109", 1, 1000)) {
+            assertEquals(4, store.getRecoveredState().getCoinBalance());
+        }
+    }
+
+    @Test
+    public void shouldRejectCorruptedSnapshot() throws IOException {
+        Path file = folder.newFile().toPath();
+        new MachineSnapshot("xyz-109", 42, 1, 2, 3).writeTo(file);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[10] ^= 1;
+        Files.write(file, bytes);
+
+        try {
+            MachineSnapshot.readFrom(file);
+            fail("Corrupted snapshot accepted");
+        } catch (IllegalStateException expected) {
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package pl.pragmatists.complexity.machine.journal;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import pl.pragmatists.complexity.machine.common.SilentMachineDisplay;
+import pl.pragmatists.complexity.machine.v7.MachineService;
+import pl.pragmatists.complexity.machine.v7.VendingMachine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TransactionJournalTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldRebuildMachineStateAfterRestart() throws IOException {
+        Path directory = folder.newFolder().toPath().resolve("xyz-109");
+        try (var journal = TransactionJournal.open(directory, "xyz-109", 16)) {
+            var vendingMachine = new VendingMachine(journal.getMachineSerialId(), journal.recoverState(),
+                    new SilentMachineDisplay(), MachineService.defaultService(), journal);
+            vendingMachine.insertCoins(20);
+            vendingMachine.choose(1);
+            vendingMachine.choose(2);
+            vendingMachine.choose(0);
+            vendingMachine.insertCoins(6);
+            vendingMachine.choose(1);
+        }
+
+        try (var journal = TransactionJournal.open(directory, "ignored", 16)) {
+            var state = journal.recoverState();
+
+            assertEquals("xyz-109", journal.getMachineSerialId());
+            assertEquals(1, state.getCoinBalance());
+            assertEquals(3, state.getChocoBarStock());
+            assertEquals(4, state.getJuiceBoxStock());
+            assertEquals(6, journal.nextIndex());
+        }
+    }
+
+    @Test
+    public void shouldReplayRecordsInOrder() throws IOException {
+        Path directory = folder.newFolder().toPath().resolve("xyz-109");
+        List<String> records = new ArrayList<>();
+        try (var journal = TransactionJournal.open(directory, "xyz-109", 1)) {
+            journal.coinsInserted(7, 7);
+            journal.itemSold(2, 7, 0);
+            journal.coinsReturned(0);
+
+            journal.replay(1, (timestamp, type, product, amount, balance) ->
+                    records.add(String.format("%s %d %d %d", type, product, amount, balance)));
+        }
+
+        assertEquals(List.of("ITEM_SOLD 2 7 0", "COINS_RETURNED 0 0 0"), records);
+    }
+
+    @Test
+    public void shouldRecoverRecordsThatWereNeverCommitted() throws IOException {
+        Path directory = folder.newFolder().toPath().resolve("xyz-109");
+        var journal = TransactionJournal.open(directory, "xyz-109", 2);
+        journal.coinsInserted(5, 5);
+        journal.coinsInserted(5, 10);
+        journal.coinsInserted(5, 15);
+        // simulates a crash: the last record was never committed
+
+        try (var reopened = TransactionJournal.open(directory, "xyz-109", 2)) {
+            assertEquals(15, reopened.recoverState().getCoinBalance());
+            assertEquals(3, reopened.nextIndex());
+        }
+    }
+
+    @Test
+    public void shouldStopRecoveryAtTornRecord() throws IOException {
+        Path directory = folder.newFolder().toPath().resolve("xyz-109");
+        var journal = TransactionJournal.open(directory, "xyz-109", 4);
+        journal.coinsInserted(5, 5);
+        journal.coinsInserted(5, 10);
+        journal.coinsInserted(5, 15);
+        // simulates a crash halfway through writing the last record
+        try (var segment = FileChannel.open(directory.resolve("000000000000.segment"), StandardOpenOption.WRITE)) {
+            segment.write(ByteBuffer.allocate(4), 2L * TransactionJournal.RECORD_SIZE + 16);
+        }
+
+        try (var reopened = TransactionJournal.open(directory, "xyz-109", 4)) {
+            assertEquals(10, reopened.recoverState().getCoinBalance());
+            assertEquals(2, reopened.nextIndex());
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package pl.pragmatists.complexity.machine.metrics;
+
+import org.junit.Test;
+import pl.pragmatists.complexity.machine.common.SilentMachineDisplay;
+import pl.pragmatists.complexity.machine.common.TransactionListener;
+import pl.pragmatists.complexity.machine.journal.MachineState;
+import pl.pragmatists.complexity.machine.v7.MachineService;
+import pl.pragmatists.complexity.machine.v7.VendingMachine;
+
+import static org.junit.Assert.*;
+
+public class RecordingMachineMetricsTest {
+    private static final int CHOCO_BAR = MachineState.CHOCO_BAR;
+    private static final int JUICE_BOX = MachineState.JUICE_BOX;
+
+    private final RecordingMachineMetrics metrics = new RecordingMachineMetrics(2, 1);
+    private final VendingMachine vendingMachine = new VendingMachine("xyz-109", new MachineState(0, 1, 5),
+            new SilentMachineDisplay(), MachineService.defaultService(), TransactionListener.NONE, metrics);
+
+    @Test
+    public void shouldCountWhatHappenedInMachine() {
+        vendingMachine.insertCoins(12);
+        vendingMachine.choose(1);
+        vendingMachine.choose(1);
+        vendingMachine.choose(2);
+        vendingMachine.choose(2);
+        vendingMachine.choose(3);
+        vendingMachine.choose(0);
+
+        var snapshot = metrics.snapshot();
+        assertEquals(1, snapshot.getSold(CHOCO_BAR));
+        assertEquals(1, snapshot.getItemUnavailable(CHOCO_BAR));
+        assertEquals(1, snapshot.getSold(JUICE_BOX));
+        assertEquals(1, snapshot.getNotEnoughCoins(JUICE_BOX));
+        assertEquals(1, snapshot.getChoiceUnavailable());
+        assertEquals(12, snapshot.getCoinsInserted());
+        assertEquals(0, snapshot.getCoinsReturned());
+        assertEquals(6, snapshot.getChooseLatency().getTotalCount());
+    }
+
+    @Test
+    public void shouldCountSoldOutMachineReturningCoins() {
+        var emptyMachine = new VendingMachine("xyz-109", new MachineState(0, 0, 0), new SilentMachineDisplay(),
+                MachineService.defaultService(), TransactionListener.NONE, metrics);
+
+        emptyMachine.insertCoins(3);
+        emptyMachine.choose(1);
+
+        var snapshot = metrics.snapshot();
+        assertEquals(1, snapshot.getSoldOut());
+        assertEquals(3, snapshot.getCoinsReturned());
+    }
+
+    @Test
+    public void shouldSampleLatencyOfEveryNthChoice() {
+        var sampled = new RecordingMachineMetrics(2, 4);
+
+        for (int i = 0; i < 16; i++) {
+            sampled.chooseFinished(sampled.chooseStarted());
+        }
+
+        assertEquals(4, sampled.snapshot().getChooseLatency().getTotalCount());
+    }
+
+    @Test
+    public void shouldExportInTextFormat() {
+        vendingMachine.insertCoins(5);
+        vendingMachine.choose(1);
+
+        var export = metrics.snapshot().export();
+
+        assertTrue(export.contains("vending_items_sold_total{product=\"1\"} 1\n"));
+        assertTrue(export.contains("vending_items_sold_total{product=\"2\"} 0\n"));
+        assertTrue(export.contains("vending_coins_inserted_total 5\n"));
+        assertTrue(export.contains("vending_choose_latency_nanos{quantile=\"0.99\"} "));
+        assertTrue(export.contains("vending_choose_latency_nanos{quantile=\"0.999\"} "));
+        assertTrue(export.contains("vending_choose_latency_nanos{quantile=\"1\"} "));
+        assertTrue(export.contains("vending_choose_latency_nanos_count 1\n"));
+    }
+
+    @Test
+    public void shouldKeepHistogramErrorWithinBucketPrecision() {
+        var histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value);
+        }
+
+        var snapshot = histogram.snapshot();
+        assertEquals(100_000, snapshot.getTotalCount());
+        assertEquals(50_000, snapshot.valueAtPercentile(50), 50_000 / 32.0);
+        assertEquals(99_000, snapshot.valueAtPercentile(99), 99_000 / 32.0);
+        assertEquals(100_000, snapshot.getMaxValue(), 100_000 / 32.0);
+        assertEquals(31, LatencyHistogram.highestValueIn(LatencyHistogram.bucketOf(31)));
+    }
+
+    @Test
+    public void shouldCountValuesRecordedByManyThreads() throws InterruptedException {
+        var histogram = new LatencyHistogram();
+        var threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    histogram.record(i % 100);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        var snapshot = histogram.snapshot();
+        assertEquals(80_000, snapshot.getTotalCount());
+        assertEquals(99, snapshot.getMaxValue(), 99 / 32.0);
+    }
+
+    @Test
+    public void shouldPutHugeValuesInLastBucket() {
+        var histogram = new LatencyHistogram();
+
+        histogram.record(Long.MAX_VALUE);
+
+        assertTrue(histogram.snapshot().getMaxValue() > 1L << 41);
+    }
+}
@@ -0,0 +1,178 @@
+package pl.pragmatists.complexity.machine.remote;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import pl.pragmatists.complexity.machine.common.SilentMachineDisplay;
+import pl.pragmatists.complexity.machine.v7.VendingMachine;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MachineServerTest {
+    private static final int SELL_CHOCO_BAR = 1;
+
+    private VendingMachine first;
+    private VendingMachine second;
+    private MachineServer server;
+    private SocketChannel client;
+
+    @Before
+    public void setUp() throws IOException {
+        first = new VendingMachine(new SilentMachineDisplay());
+        second = new VendingMachine(new SilentMachineDisplay());
+        server = new MachineServer(new InetSocketAddress("127.0.0.1", 0), List.of(first, second));
+        client = SocketChannel.open(server.getAddress());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        client.close();
+        server.close();
+    }
+
+    @Test
+    public void shouldAnswerPipelinedRequestsInOrder() throws IOException {
+        var requests = ByteBuffer.allocate(4 * Protocol.FRAME_SIZE);
+        Protocol.putRequest(requests, 1, Protocol.INSERT_COINS, 0, 12);
+        Protocol.putRequest(requests, 2, Protocol.CHOOSE, 0, SELL_CHOCO_BAR);
+        Protocol.putRequest(requests, 3, Protocol.INSERT_COINS, 1, 4);
+        Protocol.putRequest(requests, 4, Protocol.RETURN_COINS, 0, 0);
+        send(requests);
+
+        var replies = receive(4);
+
+        assertReply(replies, 0, 1, Protocol.OK, 0, 12);
+        assertReply(replies, 1, 2, Protocol.OK, 0, 7);
+        assertReply(replies, 2, 3, Protocol.OK, 1, 4);
+        assertReply(replies, 3, 4, Protocol.OK, 0, 0);
+        assertEquals(4, first.getChocoBarStock());
+        assertEquals(4, second.getCoinBalance());
+    }
+
+    @Test
+    public void shouldReportUnknownMachineAndOperation() throws IOException {
+        var requests = ByteBuffer.allocate(2 * Protocol.FRAME_SIZE);
+        Protocol.putRequest(requests, 7, Protocol.INSERT_COINS, 2, 5);
+        Protocol.putRequest(requests, 8, (byte) 42, 1, 0);
+        send(requests);
+
+        var replies = receive(2);
+
+        assertReply(replies, 0, 7, Protocol.UNKNOWN_MACHINE, 2, 0);
+        assertReply(replies, 1, 8, Protocol.UNKNOWN_OPERATION, 1, 0);
+    }
+
+    @Test
+    public void shouldRejectNonPositiveAmountOfCoins() throws IOException {
+        var requests = ByteBuffer.allocate(3 * Protocol.FRAME_SIZE);
+        Protocol.putRequest(requests, 1, Protocol.INSERT_COINS, 0, 5);
+        Protocol.putRequest(requests, 2, Protocol.INSERT_COINS, 0, 0);
+        Protocol.putRequest(requests, 3, Protocol.INSERT_COINS, 0, -3);
+        send(requests);
+
+        var replies = receive(3);
+
+        assertReply(replies, 0, 1, Protocol.OK, 0, 5);
+        assertReply(replies, 1, 2, Protocol.REJECTED, 0, 5);
+        assertReply(replies, 2, 3, Protocol.REJECTED, 0, 5);
+        assertEquals(5, first.getCoinBalance());
+    }
+
+    @Test
+    public void shouldKeepServingWhenMachineFails() throws Exception {
+        client.close();
+        server.close();
+        var broken = new VendingMachine(new SilentMachineDisplay()) {
+            @Override
+            public void choose(int selectedNumber) {
+                throw new IllegalStateException("Keypad jammed");
+            }
+        };
+        server = new MachineServer(new InetSocketAddress("127.0.0.1", 0), List.of(broken, second));
+        client = SocketChannel.open(server.getAddress());
+
+        var requests = ByteBuffer.allocate(2 * Protocol.FRAME_SIZE);
+        Protocol.putRequest(requests, 1, Protocol.CHOOSE, 0, SELL_CHOCO_BAR);
+        Protocol.putRequest(requests, 2, Protocol.INSERT_COINS, 1, 4);
+        send(requests);
+        var replies = receive(2);
+
+        assertReply(replies, 0, 1, Protocol.FAILED, 0, 0);
+        assertReply(replies, 1, 2, Protocol.OK, 1, 4);
+        try (var another = SocketChannel.open(server.getAddress())) {
+            var request = ByteBuffer.allocate(Protocol.FRAME_SIZE);
+            Protocol.putRequest(request, 3, Protocol.RETURN_COINS, 1, 0);
+            send(another, request);
+
+            assertReply(receive(another, 1), 0, 3, Protocol.OK, 1, 0);
+        }
+    }
+
+    @Test
+    public void shouldWaitForRequestSplitAcrossPackets() throws Exception {
+        var request = ByteBuffer.allocate(Protocol.FRAME_SIZE);
+        Protocol.putRequest(request, 9, Protocol.INSERT_COINS, 1, 3);
+        request.flip();
+
+        client.write(request.slice().limit(5));
+        Thread.sleep(50);
+        client.write(request.position(5));
+
+        assertReply(receive(1), 0, 9, Protocol.OK, 1, 3);
+    }
+
+    @Test
+    public void shouldAnswerManyRequestsSentAtOnce() throws IOException {
+        int count = 5000;
+        var requests = ByteBuffer.allocate(count * Protocol.FRAME_SIZE);
+        for (int i = 0; i < count; i++) {
+            Protocol.putRequest(requests, i, Protocol.INSERT_COINS, 1, 1);
+        }
+        send(requests);
+
+        var replies = receive(count);
+
+        for (int i = 0; i < count; i++) {
+            assertReply(replies, i, i, Protocol.OK, 1, i + 1);
+        }
+    }
+
+    private void send(ByteBuffer requests) throws IOException {
+        send(client, requests);
+    }
+
+    private static void send(SocketChannel channel, ByteBuffer requests) throws IOException {
+        requests.flip();
+        while (requests.hasRemaining()) {
+            channel.write(requests);
+        }
+    }
+
+    private ByteBuffer receive(int frames) throws IOException {
+        return receive(client, frames);
+    }
+
+    private static ByteBuffer receive(SocketChannel channel, int frames) throws IOException {
+        var replies = ByteBuffer.allocate(frames * Protocol.FRAME_SIZE);
+        while (replies.hasRemaining()) {
+            if (channel.read(replies) < 0) {
+                fail("Server closed the connection");
+            }
+        }
+        return replies;
+    }
+
+    private void assertReply(ByteBuffer replies, int frame, int requestId, byte status, int machine, int balance) {
+        int offset = frame * Protocol.FRAME_SIZE;
+        assertEquals(requestId, Protocol.requestIdAt(replies, offset));
+        assertEquals(status, Protocol.codeAt(replies, offset));
+        assertEquals(machine, Protocol.machineAt(replies, offset));
+        assertEquals(balance, Protocol.valueAt(replies, offset));
+    }
+}
@@ -0,0 +1,95 @@
+package pl.pragmatists.complexity.machine.session;
+
+import org.junit.Test;
+import pl.pragmatists.complexity.machine.common.SilentMachineDisplay;
+import pl.pragmatists.complexity.machine.common.TransactionListener;
+import pl.pragmatists.complexity.machine.journal.MachineState;
+import pl.pragmatists.complexity.machine.v7.BatchResult;
+import pl.pragmatists.complexity.machine.v7.MachineService;
+import pl.pragmatists.complexity.machine.v7.VendingMachine;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+public class SessionExecutorTest {
+    private static final int MACHINES = 4;
+    private static final int SESSIONS_PER_MACHINE = 250;
+
+    @Test
+    public void shouldApplySessionsAtSameMachineOneAfterAnother() throws InterruptedException {
+        var machines = machines(SESSIONS_PER_MACHINE);
+        var futures = new ArrayList<CompletableFuture<BatchResult>>();
+        try (var executor = new SessionExecutor(machines, Executors.newCachedThreadPool(), HardwareEvents.NONE)) {
+            for (int i = 0; i < SESSIONS_PER_MACHINE; i++) {
+                for (int machine = 0; machine < MACHINES; machine++) {
+                    futures.add(executor.submit(machine, CustomerSession.of(5, 1)));
+                }
+            }
+            for (var future : futures) {
+                var result = future.join();
+                assertEquals(1, result.getChocoBarsSold());
+                assertEquals(0, result.getCoinsReturned());
+            }
+        }
+
+        for (var machine : machines) {
+            assertEquals(0, machine.getChocoBarStock());
+            assertEquals(0, machine.getCoinBalance());
+        }
+    }
+
+    @Test
+    public void shouldWaitForHardwareEventsConcurrently() throws InterruptedException {
+        var latency = Duration.ofMillis(20);
+        var session = CustomerSession.of(7, 2);
+        int sessions = 100;
+        var futures = new ArrayList<CompletableFuture<BatchResult>>();
+
+        long start = System.nanoTime();
+        try (var executor = new SessionExecutor(machines(sessions), Executors.newCachedThreadPool(),
+                HardwareEvents.every(latency))) {
+            for (int i = 0; i < sessions; i++) {
+                futures.add(executor.submit(i % MACHINES, session));
+            }
+            futures.forEach(CompletableFuture::join);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        long serialNanos = sessions * session.getSteps() * latency.toNanos();
+        assertTrue(elapsed < serialNanos / 4);
+    }
+
+    @Test
+    public void shouldRunMailboxTasksInSubmissionOrder() {
+        var mailbox = new Mailbox();
+        var order = new ArrayList<Integer>();
+
+        for (int i = 0; i < 10; i++) {
+            int task = i;
+            mailbox.submit(() -> order.add(task));
+        }
+
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), order);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectUnknownMachine() throws InterruptedException {
+        try (var executor = new SessionExecutor(machines(1), Executors.newCachedThreadPool(), HardwareEvents.NONE)) {
+            executor.submit(MACHINES, CustomerSession.of(5, 1));
+        }
+    }
+
+    private static List<VendingMachine> machines(int stock) {
+        var machines = new ArrayList<VendingMachine>();
+        for (int i = 0; i < MACHINES; i++) {
+            machines.add(new VendingMachine("xyz-" + i, new MachineState(0, stock, stock), new SilentMachineDisplay(),
+                    MachineService.defaultService(), TransactionListener.NONE));
+        }
+        return machines;
+    }
+}
@@ -0,0 +1,80 @@
+package pl.pragmatists.complexity.machine.simulation;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class SimulationTest {
+    private static final Duration WEEK = Duration.ofDays(7);
+
+    @Test
+    public void shouldGiveSameResultForSameSeed() {
+        var first = new Simulation(50, 7).run(WEEK);
+        var second = new Simulation(50, 7).run(WEEK);
+
+        assertEquals(first, second);
+        assertTrue(first.getCustomers() > 0);
+    }
+
+    @Test
+    public void shouldGiveDifferentResultForDifferentSeed() {
+        var first = new Simulation(50, 7).run(WEEK);
+        var second = new Simulation(50, 8).run(WEEK);
+
+        assertNotEquals(first, second);
+    }
+
+    @Test
+    public void shouldAccountForEveryCoinWhenCustomersTakeTheirChange() {
+        var behaviour = new CustomerBehaviour(6, 10, 0.6, 0.03, 0.01, 1.0);
+        var result = new Simulation(20, 3, behaviour, Duration.ofHours(24), 60).run(WEEK);
+
+        assertEquals(result.getCoinsInserted(), result.getRevenue() + result.getCoinsReturned());
+        assertEquals(result.getCustomers(), result.getChocoBarsSold() + result.getJuiceBoxesSold()
+                + result.getNotEnoughCoins() + result.getStockouts() + result.getUnknownChoices()
+                + result.getServiceCalls());
+    }
+
+    @Test
+    public void shouldRunOutOfStockWithoutRestocking() {
+        var result = new Simulation(10, 1, CustomerBehaviour.DEFAULT, Duration.ofDays(365), 5).run(WEEK);
+
+        assertTrue(result.getStockouts() > 0);
+        assertEquals(10 * 10, result.getChocoBarsSold() + result.getJuiceBoxesSold());
+    }
+
+    @Test
+    public void shouldCountStockoutsOnlyForPurchasesAtEmptyMachine() {
+        var behaviour = new CustomerBehaviour(6, 10, 0.6, 0.2, 0.2, 1.0);
+        var result = new Simulation(10, 1, behaviour, Duration.ofDays(365), 5).run(WEEK);
+
+        assertEquals(10 * 10, result.getChocoBarsSold() + result.getJuiceBoxesSold());
+        assertEquals(result.getCustomers(), result.getChocoBarsSold() + result.getJuiceBoxesSold()
+                + result.getNotEnoughCoins() + result.getStockouts() + result.getUnknownChoices()
+                + result.getServiceCalls());
+    }
+
+    @Test
+    public void shouldSimulateAllMachinesAsSumOfParts() {
+        var simulation = new Simulation(30, 11);
+
+        var whole = simulation.run(WEEK);
+        var parts = simulation.run(0, 12, WEEK).plus(simulation.run(12, 30, WEEK));
+
+        assertEquals(whole, parts);
+    }
+
+    @Test
+    public void shouldGiveSameResultOnManyThreadsAsOnOne() {
+        var simulation = new Simulation(200, 5);
+        var pool = new ForkJoinPool(4);
+        try {
+            assertEquals(simulation.run(WEEK), simulation.run(WEEK, pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package pl.pragmatists.complexity.machine.telemetry;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import pl.pragmatists.complexity.machine.common.SilentMachineDisplay;
+import pl.pragmatists.complexity.machine.journal.MachineState;
+import pl.pragmatists.complexity.machine.v7.MachineService;
+import pl.pragmatists.complexity.machine.v7.VendingMachine;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class TelemetryMirrorTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldMirrorMachineState() throws IOException {
+        Path file = folder.newFile("telemetry").toPath();
+        try (var mirror = TelemetryMirror.create(file, 4);
+             var reader = TelemetryReader.open(file)) {
+            var state = MachineState.initial();
+            var vendingMachine = newVendingMachine(state, mirror.attach(2, "xyz-109", state));
+
+            vendingMachine.insertCoins(20);
+            vendingMachine.choose(1);
+            vendingMachine.choose(2);
+            vendingMachine.choose(0);
+            vendingMachine.insertCoins(3);
+
+            var snapshot = reader.read(2).orElseThrow();
+            assertEquals("xyz-109", snapshot.getMachineSerialId());
+            assertEquals(vendingMachine.getCoinBalance(), snapshot.getCoinBalance());
+            assertEquals(vendingMachine.getChocoBarStock(), snapshot.getChocoBarStock());
+            assertEquals(vendingMachine.getJuiceBoxStock(), snapshot.getJuiceBoxStock());
+            assertEquals(1, snapshot.getChocoBarsSold());
+            assertEquals(1, snapshot.getJuiceBoxesSold());
+            assertEquals(12, snapshot.getRevenue());
+            assertEquals(23, snapshot.getCoinsInserted());
+            assertEquals(8, snapshot.getCoinsReturned());
+            assertFalse(reader.read(0).isPresent());
+        }
+    }
+
+    @Test
+    public void shouldRejectFileOfAnotherKind() throws IOException {
+        Path file = folder.newFile("not-telemetry").toPath();
+        Files.write(file, new byte[TelemetryLayout.HEADER_SIZE]);
+
+        try {
+            TelemetryReader.open(file);
+            fail("Expected the file to be rejected");
+        } catch (IllegalArgumentException expected) {
+            assertTrue(expected.getMessage().contains("not a telemetry file"));
+        }
+    }
+
+    @Test
+    public void shouldOnlyReadConsistentSnapshotsWhileMachineIsUsed() throws Exception {
+        Path file = folder.newFile("telemetry").toPath();
+        try (var mirror = TelemetryMirror.create(file, 1);
+             var reader = TelemetryReader.open(file)) {
+            var state = new MachineState(0, 1_000_000, 1_000_000);
+            var vendingMachine = newVendingMachine(state, mirror.attach(0, "xyz-109", state));
+            var done = new AtomicBoolean();
+            var writer = new Thread(() -> {
+                for (int i = 0; i < 200_000; i++) {
+                    vendingMachine.insertCoins(13);
+                    vendingMachine.choose(1 + i % 2);
+                    vendingMachine.choose(0);
+                }
+                done.set(true);
+            });
+
+            writer.start();
+            int reads = 0;
+            while (!done.get() || reads == 0) {
+                var snapshot = reader.read(0).orElseThrow();
+                assertEquals(snapshot.getCoinsInserted(),
+                        snapshot.getRevenue() + snapshot.getCoinsReturned() + snapshot.getCoinBalance());
+                assertEquals(1_000_000 - snapshot.getChocoBarsSold(), snapshot.getChocoBarStock());
+                assertEquals(1_000_000 - snapshot.getJuiceBoxesSold(), snapshot.getJuiceBoxStock());
+                reads++;
+            }
+            writer.join();
+            var last = reader.read(0).orElseThrow();
+            assertEquals(100_000, last.getChocoBarsSold());
+            assertEquals(vendingMachine.getJuiceBoxStock(), last.getJuiceBoxStock());
+        }
+    }
+
+    @Test
+    public void shouldReadSerialIdTogetherWithStateWhileSlotIsReattached() throws Exception {
+        Path file = folder.newFile("telemetry").toPath();
+        try (var mirror = TelemetryMirror.create(file, 1);
+             var reader = TelemetryReader.open(file)) {
+            var small = new MachineState(0, 3, 3);
+            var large = new MachineState(0, 50, 50);
+            mirror.attach(0, "s-1", small);
+            var done = new AtomicBoolean();
+            var attacher = new Thread(() -> {
+                for (int i = 0; i < 100_000; i++) {
+                    mirror.attach(0, "large-machine-2", large);
+                    mirror.attach(0, "s-1", small);
+                }
+                done.set(true);
+            });
+
+            attacher.start();
+            while (!done.get()) {
+                var snapshot = reader.read(0).orElseThrow();
+                int expectedStock = "s-1".equals(snapshot.getMachineSerialId()) ? 3 : 50;
+                assertEquals(snapshot.getMachineSerialId(), expectedStock, snapshot.getChocoBarStock());
+            }
+            attacher.join();
+        }
+    }
+
+    private VendingMachine newVendingMachine(MachineState state, TelemetrySlot slot) {
+        return new VendingMachine("xyz-109", state, new SilentMachineDisplay(),
+                MachineService.defaultService(), slot);
+    }
+}
@@ -0,0 +1,121 @@
+package pl.pragmatists.complexity.machine.v7;
+
+import org.junit.Test;
+import pl.pragmatists.complexity.machine.common.SilentMachineDisplay;
+import pl.pragmatists.complexity.machine.common.TransactionListener;
+import pl.pragmatists.complexity.machine.journal.MachineState;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class MachineServiceTest {
+    private static final Duration WINDOW = Duration.ofSeconds(10);
+
+    @Test
+    public void shouldDeliverReportsInBatches() throws InterruptedException {
+        var transport = new InProcessIssueTransport();
+        var blocked = new CountDownLatch(1);
+        var service = new MachineService(batch -> {
+            blocked.await();
+            transport.deliver(batch);
+        }, 16, WINDOW, Duration.ofMillis(1), Duration.ofMillis(10));
+
+        service.reportIssue("xyz-1");
+        service.reportIssue("xyz-2");
+        service.reportIssue("xyz-3");
+        blocked.countDown();
+        service.close();
+
+        var batches = transport.getBatches();
+        assertEquals(List.of("xyz-1", "xyz-2", "xyz-3"), flatten(batches));
+        assertTrue(batches.size() <= 2);
+        assertEquals(3, service.getDeliveredCount());
+    }
+
+    @Test
+    public void shouldCoalesceReportsOfSameMachineWithinWindow() throws InterruptedException {
+        var transport = new InProcessIssueTransport();
+        var clock = new AtomicLong();
+        var service = new MachineService(transport, 16, WINDOW, Duration.ofMillis(1), Duration.ofMillis(10), clock::get);
+
+        service.reportIssue("xyz-1");
+        service.reportIssue("xyz-1");
+        service.reportIssue("xyz-2");
+        clock.addAndGet(WINDOW.toNanos());
+        service.reportIssue("xyz-1");
+        service.close();
+
+        assertEquals(List.of("xyz-1", "xyz-2", "xyz-1"), flatten(transport.getBatches()));
+        assertEquals(1, service.getCoalescedCount());
+    }
+
+    @Test
+    public void shouldNotCoalesceWithReportDroppedFromFullQueue() throws InterruptedException {
+        var transport = new InProcessIssueTransport();
+        var sending = new CountDownLatch(1);
+        var blocked = new CountDownLatch(1);
+        var service = new MachineService(batch -> {
+            sending.countDown();
+            blocked.await();
+            transport.deliver(batch);
+        }, 1, WINDOW, Duration.ofMillis(1), Duration.ofMillis(10), () -> 0);
+
+        service.reportIssue("xyz-1");
+        sending.await();
+        service.reportIssue("xyz-2");
+        service.reportIssue("xyz-3");
+        service.reportIssue("xyz-3");
+        assertEquals(2, service.getDroppedCount());
+        assertEquals(0, service.getCoalescedCount());
+
+        blocked.countDown();
+        transport.awaitBatches(2, 5_000);
+        service.reportIssue("xyz-3");
+        service.close();
+
+        assertEquals(List.of("xyz-1", "xyz-2", "xyz-3"), flatten(transport.getBatches()));
+    }
+
+    @Test
+    public void shouldRetryFailedDeliveries() throws InterruptedException {
+        var transport = new InProcessIssueTransport();
+        transport.failNext(3);
+        var service = new MachineService(transport, 16, WINDOW, Duration.ofMillis(1), Duration.ofMillis(4));
+
+        service.reportIssue("xyz-1");
+
+        assertEquals(List.of(List.of("xyz-1")), transport.awaitBatches(1, 5_000));
+        assertEquals(3, service.getRetryCount());
+        service.close();
+    }
+
+    @Test
+    public void shouldNotBlockMachineWhenBackOfficeHangs() throws InterruptedException {
+        var hanging = new CountDownLatch(1);
+        var service = new MachineService(batch -> hanging.await(), 4, Duration.ZERO,
+                Duration.ofMillis(1), Duration.ofMillis(10));
+        var vendingMachine = new VendingMachine("xyz-109", MachineState.initial(), new SilentMachineDisplay(),
+                service, TransactionListener.NONE);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 100; i++) {
+            vendingMachine.choose(100);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        assertTrue(elapsed < TimeUnit.SECONDS.toNanos(1));
+        assertTrue(service.getDroppedCount() > 0);
+        hanging.countDown();
+        service.close();
+    }
+
+    private static List<String> flatten(List<List<String>> batches) {
+        return batches.stream().flatMap(List::stream).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,62 @@
+package pl.pragmatists.complexity.machine.v7;
+
+import org.junit.Test;
+import pl.pragmatists.complexity.machine.common.MachineDisplay;
+
+import java.nio.IntBuffer;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+import static pl.pragmatists.complexity.machine.v7.BatchCommands.*;
+
+public class VendingMachineBatchTest {
+    @Test
+    public void shouldAggregateResultsOfAllCommands() {
+        MachineDisplay display = mock(MachineDisplay.class);
+        VendingMachine vendingMachine = new VendingMachine(display);
+
+        BatchResult result = vendingMachine.apply(IntBuffer.wrap(new int[]{
+                INSERT_COINS, 15,
+                CHOOSE, 1,
+                CHOOSE, 2,
+                CHOOSE, 2,
+                CHOOSE, 57,
+                RETURN_COINS, 0,
+                INSERT_COINS, 4,
+                CHOOSE, 1,
+                CHOOSE, 0
+        }), false);
+
+        assertEquals(9, result.getCommands());
+        assertEquals(1, result.getChocoBarsSold());
+        assertEquals(1, result.getJuiceBoxesSold());
+        assertEquals(19, result.getCoinsInserted());
+        assertEquals(7, result.getCoinsReturned());
+        assertEquals(3, result.getRejectedChoices());
+        assertEquals(0, vendingMachine.getCoinBalance());
+        verifyNoInteractions(display);
+    }
+
+    @Test
+    public void shouldDisplayEventsOnRequest() {
+        MachineDisplay display = mock(MachineDisplay.class);
+        VendingMachine vendingMachine = new VendingMachine(display);
+
+        vendingMachine.apply(IntBuffer.wrap(new int[]{INSERT_COINS, 5, CHOOSE, 1}), true);
+        vendingMachine.insertCoins(1);
+
+        verify(display, times(3)).display(any(), any(), anyInt(), anyInt());
+    }
+
+    @Test
+    public void shouldNotApplyAnythingFromInvalidBuffer() {
+        VendingMachine vendingMachine = new VendingMachine(mock(MachineDisplay.class));
+
+        try {
+            vendingMachine.apply(IntBuffer.wrap(new int[]{INSERT_COINS, 5, 42, 1}), false);
+            fail("Unknown opcode accepted");
+        } catch (IllegalArgumentException expected) {
+            assertEquals(0, vendingMachine.getCoinBalance());
+        }
+    }
+}